@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Creates a Keycloak image containing an AppCDS (class data sharing) archive and keeps it as a local image.
+ * The archive is dumped by the JVM at the end of a training start of Keycloak, the training container is then
+ * committed as image. The image tag is a hash of all inputs of the training start (image, configuration and files),
+ * so an existing image is reused as long as none of these inputs change.
+ */
+class ClassDataSharingImageCache {
+
+    static final String IMAGE_REPOSITORY = "localhost/testcontainers-keycloak-cds";
+    static final String ARCHIVE_FILE = "/opt/keycloak/keycloak-cds.jsa";
+
+    // the JVM dumps the archive on exit, which takes a few seconds for the classes of a Keycloak server
+    private static final int STOP_TIMEOUT_SECONDS = 60;
+
+    private final DockerClient dockerClient;
+    private final Logger logger;
+
+    ClassDataSharingImageCache(DockerClient dockerClient, Logger logger) {
+        this.dockerClient = dockerClient;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the name of the image for the given hash, running the training container first, if it does not yet exist.
+     *
+     * @param hash              the hash of all inputs of the training start.
+     * @param trainingContainer creates the container for the training start, which dumps the archive on exit.
+     * @param imageEnv          the environment of the committed image, overriding the one of the training container.
+     */
+    String resolve(String hash, Supplier<GenericContainer<?>> trainingContainer, Map<String, String> imageEnv) {
+        String tag = hash.substring(0, 16);
+        String imageName = IMAGE_REPOSITORY + ":" + tag;
+
+        if (imageExists(imageName)) {
+            logger.debug("Reusing class data sharing image {}", imageName);
+            return imageName;
+        }
+
+        logger.info("Creating class data sharing image {} with a training start of Keycloak", imageName);
+        GenericContainer<?> container = trainingContainer.get();
+        container.start();
+        try {
+            // only a graceful stop lets the JVM exit normally, which dumps the archive
+            dockerClient.stopContainerCmd(container.getContainerId()).withTimeout(STOP_TIMEOUT_SECONDS).exec();
+            dockerClient.commitCmd(container.getContainerId())
+                .withRepository(IMAGE_REPOSITORY)
+                .withTag(tag)
+                .withEnv(imageEnv.entrySet().stream().map(e -> e.getKey() + "=" + e.getValue()).toArray(String[]::new))
+                // otherwise the image would be removed together with the containers of this test session
+                .withLabels(Map.of(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, ""))
+                .exec();
+        } finally {
+            container.stop();
+        }
+        return imageName;
+    }
+
+    private boolean imageExists(String imageName) {
+        try {
+            dockerClient.inspectImageCmd(imageName).exec();
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.utility.MountableFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.Checksum;
+
+/**
+ * Collects multiple files below a common base directory, which are then transferred to the container
+ * as entries of one single tar stream, thus with one single copy operation.
+ */
+class ContainerFileArchive implements Transferable {
+
+    private final String baseDirectory;
+    private final Map<String, MountableFile> files = new TreeMap<>();
+
+    ContainerFileArchive(String baseDirectory) {
+        this.baseDirectory = baseDirectory.endsWith("/") ? baseDirectory : baseDirectory + "/";
+    }
+
+    /**
+     * Adds the file, if the {@code containerPath} is located below the base directory of this archive.
+     *
+     * @return {@code false}, if the file can't be part of this archive.
+     */
+    boolean add(String containerPath, MountableFile file) {
+        if (!containerPath.startsWith(baseDirectory)) {
+            return false;
+        }
+        files.put(containerPath.substring(baseDirectory.length()), file);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    void clear() {
+        files.clear();
+    }
+
+    @Override
+    public void transferTo(TarArchiveOutputStream tarArchiveOutputStream, String destination) {
+        String target = destination.endsWith("/") ? destination : destination + "/";
+        files.forEach((path, file) -> file.transferTo(tarArchiveOutputStream, target + path));
+    }
+
+    @Override
+    public long getSize() {
+        return files.values().stream().mapToLong(MountableFile::getSize).sum();
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("%d files below %s", files.size(), baseDirectory);
+    }
+
+    @Override
+    public void updateChecksum(Checksum checksum) {
+        files.forEach((path, file) -> {
+            byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+            checksum.update(pathBytes, 0, pathBytes.length);
+            file.updateChecksum(checksum);
+        });
+    }
+
+}
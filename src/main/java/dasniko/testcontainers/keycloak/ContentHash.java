@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Small SHA-256 helper to derive stable cache keys from configuration values and file contents.
+ */
+class ContentHash {
+
+    private final MessageDigest digest;
+
+    private ContentHash() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static ContentHash create() {
+        return new ContentHash();
+    }
+
+    ContentHash add(String value) {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        addLength(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    ContentHash add(Map<String, String> values) {
+        values.forEach((key, value) -> add(key).add(value));
+        return this;
+    }
+
+    /**
+     * Adds the content of a single file.
+     */
+    ContentHash addFile(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            addLength(Files.size(file));
+            update(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the entries of a ZIP/JAR archive by name and content only, ignoring timestamps and entry order.
+     */
+    ContentHash addArchive(Path archive) {
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            List<? extends ZipEntry> entries = zipFile.stream()
+                .filter(entry -> !entry.isDirectory())
+                .sorted(Comparator.comparing(ZipEntry::getName))
+                .collect(Collectors.toList());
+            for (ZipEntry entry : entries) {
+                add(entry.getName());
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    update(in);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Adds all regular files below {@code root}, in a stable order and together with their relative paths.
+     */
+    ContentHash addTree(Path root) {
+        for (Path file : listFiles(root)) {
+            add(relativeName(root, file)).addFile(file);
+        }
+        return this;
+    }
+
+    String toHex() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lists all regular files below {@code root}, sorted by their relative path.
+     */
+    static List<Path> listFiles(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                .filter(Files::isRegularFile)
+                .sorted((a, b) -> relativeName(root, a).compareTo(relativeName(root, b)))
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the path of {@code file} relative to {@code root}, always using {@code /} as separator.
+     */
+    static String relativeName(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private void update(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+    }
+
+    private void addLength(long length) {
+        for (int i = 7; i >= 0; i--) {
+            digest.update((byte) (length >>> (i * 8)));
+        }
+    }
+
+}
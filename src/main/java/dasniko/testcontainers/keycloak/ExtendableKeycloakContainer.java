@@ -15,18 +15,21 @@
  */
 package dasniko.testcontainers.keycloak;
 
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.HostConfig;
 import org.apache.commons.io.FilenameUtils;
-import org.jboss.shrinkwrap.api.ShrinkWrap;
-import org.jboss.shrinkwrap.api.exporter.ZipExporter;
-import org.jboss.shrinkwrap.api.importer.ExplodedImporter;
-import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jetbrains.annotations.NotNull;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.ClientsResource;
 import org.keycloak.representations.idm.ClientRepresentation;
+import org.keycloak.representations.idm.RealmRepresentation;
+import org.keycloak.util.JsonSerialization;
 import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.JdbcDatabaseContainer;
+import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
-import org.testcontainers.containers.wait.strategy.HttpWaitStrategy;
+import org.testcontainers.containers.startupcheck.OneShotStartupCheckStrategy;
 import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.containers.wait.strategy.WaitStrategy;
 import org.testcontainers.images.ImagePullPolicy;
@@ -41,9 +44,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.cert.CertificateFactory;
@@ -51,15 +57,25 @@ import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
@@ -82,9 +98,18 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     public static final WaitStrategy LOG_WAIT_STRATEGY = Wait.forLogMessage(".*Listening on\\: http:\\/\\/0\\.0\\.0\\.0:" + KEYCLOAK_PORT_HTTP + "\\. Management interface listening on http\\:\\/\\/0\\.0\\.0\\.0:" + KEYCLOAK_PORT_MGMT +"\\..*", 1);
 
+    private static final AtomicInteger START_THREAD_COUNT = new AtomicInteger();
+
     private static final Duration DEFAULT_STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration DEFAULT_HTTP_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_HTTP_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_TOKEN_EXPIRY_SKEW = Duration.ofSeconds(30);
+    private static final int DEFAULT_MINT_CONCURRENCY = 32;
     private static final int DEFAULT_INITIAL_RAM_PERCENTAGE = 1;
     private static final int DEFAULT_MAX_RAM_PERCENTAGE = 5;
+    // heap sizing relative to a memory limit, leaving room for metaspace, thread stacks and direct buffers
+    private static final int LIMITED_INITIAL_HEAP_PERCENTAGE = 50;
+    private static final int LIMITED_MAX_HEAP_PERCENTAGE = 70;
 
     private static final String KEYCLOAK_START_DEV_COMMAND = "start-dev";
     private static final String KEYCLOAK_START_PRODUCTION_COMMAND = "start";
@@ -98,6 +123,24 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
     private static final String DEFAULT_KEYCLOAK_PROVIDERS_LOCATION = KEYCLOAK_HOME_DIR + "/providers";
     private static final String DEFAULT_REALM_IMPORT_FILES_LOCATION = KEYCLOAK_HOME_DIR + "/data/import/";
 
+    // write-heavy directories below the data directory: dev-file database, transaction logs and temporary files
+    private static final List<String> IN_MEMORY_DATA_DIRECTORIES = List.of("h2", "transaction-logs", "tmp");
+
+    private static final String DATABASE_NETWORK_ALIAS = "keycloak-db";
+    // Keycloak database vendors by JDBC url prefix
+    private static final Map<String, String> DATABASE_VENDORS = Map.of(
+        "jdbc:postgresql:", "postgres",
+        "jdbc:mysql:", "mysql",
+        "jdbc:mariadb:", "mariadb",
+        "jdbc:sqlserver:", "mssql",
+        "jdbc:oracle:", "oracle"
+    );
+
+    private static final String JAVA_OPTS_APPEND = "JAVA_OPTS_APPEND";
+
+    // ids are unique across all realms, thus they are generated anew for cloned realms
+    private static final List<String> REALM_TEMPLATE_ID_FIELDS = List.of("id", "_id", "internalId", "containerId");
+
     private static final String KEYSTORE_FILE_IN_CONTAINER = KEYCLOAK_CONF_DIR + "/server.keystore";
     private static final String TRUSTSTORE_FILE_IN_CONTAINER = KEYCLOAK_CONF_DIR + "/server.truststore";
 
@@ -107,6 +150,10 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
     private String contextPath = KEYCLOAK_CONTEXT_PATH;
     private int initialRamPercentage = DEFAULT_INITIAL_RAM_PERCENTAGE;
     private int maxRamPercentage = DEFAULT_MAX_RAM_PERCENTAGE;
+    private JvmProfile jvmProfile;
+    private boolean ramPercentageSet = false;
+    private double cpuLimit;
+    private long memoryLimitMegabytes;
 
     private final Set<String> importFiles;
     private String tlsCertificateFilename;
@@ -130,6 +177,7 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     private Duration startupTimeout = DEFAULT_STARTUP_TIMEOUT;
     private boolean customWaitStrategySet = false;
+    private final List<String> fatalLogPatterns = new ArrayList<>();
     private ImagePullPolicy imagePullPolicy = PullPolicy.ageBased(Duration.ofDays(1));
 
     private List<String> providerClassLocations;
@@ -138,8 +186,40 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     private boolean bootstrapAdmin = true;
     private boolean optimizeFlag = false;
-
-    private final Map<String, String> openIdConfigCache = new ConcurrentHashMap<>();
+    private boolean optimizedImageCache = false;
+    private RemoteDockerImage baseImage;
+    private final Map<String, File> optimizedImageProviderFiles = new TreeMap<>();
+    // provider files registered outside of configure(), e.g. with createKeycloakExtensionProvider() before the start
+    private final Map<String, File> registeredProviderFiles = new TreeMap<>();
+    private boolean configuring = false;
+    // the jars of withProviderClassesFrom(), packaged in parallel by configure(), keyed by their classes location
+    private final Map<Path, Path> packagedProviderJars = new HashMap<>();
+    private boolean singleArchiveCopy = false;
+    private final ContainerFileArchive fileArchive = new ContainerFileArchive(KEYCLOAK_HOME_DIR);
+    private final Map<String, MountableFile> containerFiles = new TreeMap<>();
+    private boolean realmImportSnapshot = false;
+    private boolean classDataSharing = false;
+    private boolean inMemoryDataDirectory = false;
+    private JdbcDatabaseContainer<?> database;
+    private String appliedJavaOptions;
+
+    private Duration httpConnectTimeout = DEFAULT_HTTP_CONNECT_TIMEOUT;
+    private Duration httpRequestTimeout = DEFAULT_HTTP_REQUEST_TIMEOUT;
+    private volatile HttpClient httpClient;
+    private volatile SSLContext sslContext;
+    private TokenCache tokenCache;
+
+    private final Map<String, OpenIdConfiguration> openIdConfigCache = new ConcurrentHashMap<>();
+    private boolean openIdConfigPreload = false;
+    private final Map<String, LocalTokenVerifier> tokenVerifiers = new ConcurrentHashMap<>();
+    private TokenForger tokenForger;
+    private final Map<String, String> forgedTokenHeaders = new ConcurrentHashMap<>();
+    private final Set<ManagedToken> managedTokens = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService tokenRenewalScheduler;
+    private final Map<String, byte[]> realmTemplates = new ConcurrentHashMap<>();
+    private volatile Keycloak leaseAdminClient;
+    private final StartupTimer startupTimer = new StartupTimer();
+    private volatile StartupReport startupReport;
 
     /**
      * Create a KeycloakContainer with the default image and version tag
@@ -171,11 +251,41 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         withExposedPorts(KEYCLOAK_PORT_HTTP, KEYCLOAK_PORT_HTTPS, KEYCLOAK_PORT_MGMT);
         importFiles = new HashSet<>();
         withLogConsumer(new Slf4jLogConsumer(logger()));
+        withLogConsumer(startupTimer);
+        withCreateContainerCmdModifier(cmd -> startupTimer.containerCreating());
+        withCreateContainerCmdModifier(this::applyResourceLimits);
     }
 
     @Override
     protected void configure() {
+        configuring = true;
+        try {
+            configureContainer();
+        } finally {
+            configuring = false;
+        }
+    }
+
+    private void configureContainer() {
+        startupTimer.configuring();
+        // the TLS configuration and the mapped ports may have changed since the last start
+        sslContext = null;
+        openIdConfigCache.clear();
+        tokenVerifiers.clear();
+        forgedTokenHeaders.clear();
         super.withImagePullPolicy(imagePullPolicy);
+        if (baseImage == null) {
+            baseImage = getImage();
+        }
+        optimizedImageProviderFiles.clear();
+        fileArchive.clear();
+        containerFiles.clear();
+
+        // build time options, see https://www.keycloak.org/server/all-config
+        Map<String, String> buildOptions = new TreeMap<>();
+
+        // JVM options, appended to the ones of JAVA_OPTS_APPEND
+        List<String> javaOptions = new ArrayList<>();
 
         List<String> commandParts = new ArrayList<>();
         if (useVerbose) {
@@ -184,15 +294,29 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         commandParts.add(startupCommand);
 
         if (!contextPath.equals(KEYCLOAK_CONTEXT_PATH)) {
-            withEnv("KC_HTTP_RELATIVE_PATH", contextPath);
+            buildOptions.put("KC_HTTP_RELATIVE_PATH", contextPath);
         }
 
         if (featuresEnabled != null) {
-            withEnv("KC_FEATURES", String.join(",", featuresEnabled));
+            buildOptions.put("KC_FEATURES", String.join(",", featuresEnabled));
         }
 
         if (featuresDisabled != null) {
-            withEnv("KC_FEATURES_DISABLED", String.join(",", featuresDisabled));
+            buildOptions.put("KC_FEATURES_DISABLED", String.join(",", featuresDisabled));
+        }
+
+        if (database != null) {
+            if (realmImportSnapshot) {
+                throw new IllegalStateException("A realm import snapshot only applies to the default (dev-file) database");
+            }
+            if (classDataSharing) {
+                // the training start would run the schema migrations against the database, outside of its network
+                throw new IllegalStateException("Class data sharing only applies to the default (dev-file) database");
+            }
+            buildOptions.put("KC_DB", getDatabaseVendor(database.getJdbcUrl()));
+            withEnv("KC_DB_URL", getDatabaseUrlInNetwork());
+            withEnv("KC_DB_USERNAME", database.getUsername());
+            withEnv("KC_DB_PASSWORD", database.getPassword());
         }
 
         if (bootstrapAdmin) {
@@ -200,22 +324,37 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
             withEnv("KC_BOOTSTRAP_ADMIN_PASSWORD", adminPassword);
         }
 
-        withEnv("JAVA_OPTS_KC_HEAP", String.format("-XX:InitialRAMPercentage=%d -XX:MaxRAMPercentage=%d", initialRamPercentage, maxRamPercentage));
+        if (memoryLimitMegabytes > 0 && !ramPercentageSet) {
+            // the default percentages are meant for the whole memory of the host, not for a dedicated limit
+            long maxHeap = memoryLimitMegabytes * LIMITED_MAX_HEAP_PERCENTAGE / 100;
+            long initialHeap = jvmProfile != null && jvmProfile.isFixedHeap()
+                ? maxHeap : memoryLimitMegabytes * LIMITED_INITIAL_HEAP_PERCENTAGE / 100;
+            withEnv("JAVA_OPTS_KC_HEAP", String.format("-Xms%dm -Xmx%dm", initialHeap, maxHeap));
+        } else {
+            withEnv("JAVA_OPTS_KC_HEAP", String.format("-XX:InitialRAMPercentage=%d -XX:MaxRAMPercentage=%d", initialRamPercentage, maxRamPercentage));
+        }
+        if (jvmProfile != null) {
+            javaOptions.addAll(jvmProfile.getJavaOptions());
+            if (jvmProfile.isFixedHeap() && memoryLimitMegabytes > 0) {
+                // only a heap bounded by a memory limit is pre-touched, a percentage of a large host's memory takes too long
+                javaOptions.add("-XX:+AlwaysPreTouch");
+            }
+        }
 
         if (useTls && isNotBlank(tlsCertificateFilename)) {
             String tlsCertFilePath = KEYCLOAK_CONF_DIR + "/tls.crt";
             String tlsCertKeyFilePath = KEYCLOAK_CONF_DIR + "/tls.key";
-            withCopyFileToContainer(MountableFile.forClasspathResource(tlsCertificateFilename), tlsCertFilePath);
-            withCopyFileToContainer(MountableFile.forClasspathResource(tlsCertificateKeyFilename), tlsCertKeyFilePath);
+            addFileToContainer(MountableFile.forClasspathResource(tlsCertificateFilename), tlsCertFilePath);
+            addFileToContainer(MountableFile.forClasspathResource(tlsCertificateKeyFilename), tlsCertKeyFilePath);
             withEnv("KC_HTTPS_CERTIFICATE_FILE", tlsCertFilePath);
             withEnv("KC_HTTPS_CERTIFICATE_KEY_FILE", tlsCertKeyFilePath);
         } else if (useTls && isNotBlank(tlsKeystoreFilename)) {
-            withCopyFileToContainer(MountableFile.forClasspathResource(tlsKeystoreFilename), KEYSTORE_FILE_IN_CONTAINER);
+            addFileToContainer(MountableFile.forClasspathResource(tlsKeystoreFilename), KEYSTORE_FILE_IN_CONTAINER);
             withEnv("KC_HTTPS_KEY_STORE_FILE", KEYSTORE_FILE_IN_CONTAINER);
             withEnv("KC_HTTPS_KEY_STORE_PASSWORD", tlsKeystorePassword);
         }
         if (useTls && isNotBlank(tlsTruststoreFilename)) {
-            withCopyFileToContainer(MountableFile.forClasspathResource(tlsTruststoreFilename), TRUSTSTORE_FILE_IN_CONTAINER);
+            addFileToContainer(MountableFile.forClasspathResource(tlsTruststoreFilename), TRUSTSTORE_FILE_IN_CONTAINER);
             withEnv("KC_HTTPS_TRUST_STORE_FILE", TRUSTSTORE_FILE_IN_CONTAINER);
             withEnv("KC_HTTPS_TRUST_STORE_PASSWORD", tlsTruststorePassword);
         }
@@ -223,54 +362,99 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
             List<String> truststorePaths = new ArrayList<>();
             tlsTrustedCertificateFilenames.forEach(certificateFilename -> {
                 String certPathInContainer = KEYCLOAK_CONF_DIR + (certificateFilename.startsWith("/") ? "" : "/") + certificateFilename;
-                withCopyFileToContainer(MountableFile.forClasspathResource(certificateFilename), certPathInContainer);
+                addFileToContainer(MountableFile.forClasspathResource(certificateFilename), certPathInContainer);
                 truststorePaths.add(certPathInContainer);
             });
             withEnv("KC_TRUSTSTORE_PATHS", String.join(",", truststorePaths));
         }
 
-        if (!this.optimizeFlag) {
+        if (!this.optimizeFlag || this.optimizedImageCache) {
             // here are all default build options listed, that would prevent Keycloak from starting, without a new build
-            withEnv("KC_HTTPS_CLIENT_AUTH", httpsClientAuth.toString());
-            withEnv("KC_HTTPS_MANAGEMENT_CLIENT_AUTH", HttpsClientAuth.NONE.toString());
+            buildOptions.put("KC_HTTPS_CLIENT_AUTH", httpsClientAuth.toString());
+            buildOptions.put("KC_HTTPS_MANAGEMENT_CLIENT_AUTH", HttpsClientAuth.NONE.toString());
 
-            withEnv("KC_METRICS_ENABLED", Boolean.toString(metricsEnabled));
-        } else {
+            buildOptions.put("KC_METRICS_ENABLED", Boolean.toString(metricsEnabled));
+        }
+        if (this.optimizeFlag) {
             commandParts.add("--optimized");
         }
 
-        withEnv("KC_HEALTH_ENABLED", Boolean.toString(Boolean.TRUE));
+        buildOptions.put("KC_HEALTH_ENABLED", Boolean.toString(Boolean.TRUE));
         if (!customWaitStrategySet) {
-            HttpWaitStrategy waitStrategy = Wait.forHttp(contextPath + "/health/ready").forPort(KEYCLOAK_PORT_MGMT);
-            if (useTls) {
-                waitStrategy = waitStrategy.usingTls().allowInsecure();
-            }
-            setWaitStrategy(waitStrategy.withStartupTimeout(startupTimeout));
+            List<String> patterns = new ArrayList<>(FailFastWaitStrategy.DEFAULT_FATAL_LOG_PATTERNS);
+            patterns.addAll(fatalLogPatterns);
+            setWaitStrategy(new FailFastWaitStrategy(contextPath + "/health/ready", KEYCLOAK_PORT_MGMT, useTls, patterns)
+                .withStartupTimeout(startupTimeout));
         }
 
         if (providerClassLocations != null && !providerClassLocations.isEmpty()) {
-            AtomicInteger index = new AtomicInteger(0);
-            providerClassLocations.forEach(providerClassLocation -> createKeycloakExtensionDeployment(
-                DEFAULT_KEYCLOAK_PROVIDERS_LOCATION,
-                index.getAndIncrement() + "_" + DEFAULT_KEYCLOAK_PROVIDERS_NAME,
-                providerClassLocation
-            ));
+            // jars are packaged in parallel up front, but deployed sequentially through the overridable deployment method
+            Map<Path, Path> classesLocations = new LinkedHashMap<>();
+            for (String providerClassLocation : providerClassLocations) {
+                Path classesLocation = Paths.get(resolveExtensionClassLocation(providerClassLocation));
+                if (Files.exists(classesLocation)) {
+                    classesLocations.put(classesLocation, classesLocation);
+                }
+            }
+            try {
+                packagedProviderJars.putAll(ProviderJarCache.getOrCreateAll(classesLocations, logger()));
+                for (int i = 0; i < providerClassLocations.size(); i++) {
+                    createKeycloakExtensionDeployment(DEFAULT_KEYCLOAK_PROVIDERS_LOCATION,
+                        i + "_" + DEFAULT_KEYCLOAK_PROVIDERS_NAME, providerClassLocations.get(i));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                packagedProviderJars.clear();
+            }
         }
 
+        // the files of every configure() start from scratch, thus the ones registered before are deployed again
+        registeredProviderFiles.forEach(this::copyProviderFileToContainer);
+
         if (providerLibsLocations != null) {
             providerLibsLocations.forEach(file -> {
                 String containerPath = DEFAULT_KEYCLOAK_PROVIDERS_LOCATION + "/" + file.getName();
-                withCopyFileToContainer(MountableFile.forHostPath(file.getAbsolutePath()), containerPath);
+                copyProviderFileToContainer(containerPath, file);
             });
         }
 
-        commandParts.add("--import-realm");
-        if (!importFiles.isEmpty()) {
-            for (String importFile : importFiles) {
-                // TODO: a strategy for files with the same name but in the different dirs
-                String importFileInContainer = DEFAULT_REALM_IMPORT_FILES_LOCATION + FilenameUtils.getName(importFile);
-                withCopyFileToContainer(MountableFile.forClasspathResource(importFile, 0644), importFileInContainer);
+        if (optimizedImageCache) {
+            // build options and providers are baked into the image, they must not be set again at runtime
+            OptimizedImageCache imageCache = new OptimizedImageCache(getDockerClient(), logger());
+            setImage(imageCache.resolve(baseImage.get(), buildOptions, optimizedImageProviderFiles));
+        } else {
+            // a previous configure() may have replaced the image with a class data sharing image, which is built on this one
+            setImage(baseImage);
+            buildOptions.forEach(this::withEnv);
+        }
+
+        Map<String, MountableFile> importFileCopies = new TreeMap<>();
+        for (String importFile : importFiles) {
+            // TODO: a strategy for files with the same name but in the different dirs
+            String importFileInContainer = DEFAULT_REALM_IMPORT_FILES_LOCATION + FilenameUtils.getName(importFile);
+            importFileCopies.put(importFileInContainer, tokenForger != null
+                ? withTokenForgingKey(importFile)
+                : MountableFile.forClasspathResource(importFile, 0644));
+        }
+        if (!realmImportSnapshot) {
+            commandParts.add("--import-realm");
+            importFileCopies.forEach((importFileInContainer, file) -> addFileToContainer(file, importFileInContainer));
+        }
+
+        if (inMemoryDataDirectory) {
+            if (realmImportSnapshot) {
+                throw new IllegalStateException("A realm import snapshot can't be restored into an in-memory data directory");
             }
+            // the import directory stays on the container filesystem, so that the realm import files can be copied before the start
+            // withTmpFs() replaces the whole mapping, thus all directories have to be set at once
+            Map<String, String> tmpFs = new LinkedHashMap<>();
+            IN_MEMORY_DATA_DIRECTORIES.forEach(directory -> tmpFs.put(KEYCLOAK_HOME_DIR + "/data/" + directory, "rw"));
+            withTmpFs(tmpFs);
+        }
+
+        if (singleArchiveCopy && !fileArchive.isEmpty()) {
+            withCopyToContainer(fileArchive, KEYCLOAK_HOME_DIR);
         }
 
         /* caching is disabled per default in dev-mode, thus we overwrite that config, unless #withDisabledCaching() has been called */
@@ -303,7 +487,80 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
             commandParts.addAll(customCommandParts);
         }
 
+        applyJavaOptions(javaOptions);
+        if (classDataSharing) {
+            // the training start has to be run with the final configuration, thus this has to be one of the last steps
+            resolveClassDataSharingImage(commandParts);
+            javaOptions.add("-XX:SharedArchiveFile=" + ClassDataSharingImageCache.ARCHIVE_FILE);
+            applyJavaOptions(javaOptions);
+        }
+
+        if (realmImportSnapshot) {
+            // the snapshot has to be created with the final configuration, thus this has to be the last step
+            restoreRealmImportSnapshot(importFileCopies);
+        }
+
         setCommand(commandParts.toArray(new String[0]));
+        startupTimer.configured();
+    }
+
+    @Override
+    protected void containerIsCreated(String containerId) {
+        super.containerIsCreated(containerId);
+        startupTimer.containerCreated();
+    }
+
+    @Override
+    protected void containerIsStarted(InspectContainerResponse containerInfo) {
+        super.containerIsStarted(containerInfo);
+        startupReport = startupTimer.ready();
+        logger().debug("{}", startupReport);
+        if (openIdConfigPreload) {
+            preloadOpenIdConfigurations();
+        }
+    }
+
+    @Override
+    protected void containerIsStopped(InspectContainerResponse containerInfo) {
+        super.containerIsStopped(containerInfo);
+        closeHttpClient();
+        closeLeaseAdminClient();
+        // the discovery documents contain the mapped port, which changes with a restart
+        openIdConfigCache.clear();
+        tokenVerifiers.clear();
+        forgedTokenHeaders.clear();
+        // the sessions of the managed tokens are gone with the container
+        new ArrayList<>(managedTokens).forEach(ManagedToken::close);
+        shutdownTokenRenewalScheduler();
+        if (tokenCache != null) {
+            tokenCache.clear();
+        }
+    }
+
+    /**
+     * Starts the container on a new background thread, so that other setup work can be done in parallel.
+     * The returned future completes with this container, as soon as it is started and ready,
+     * or exceptionally with the startup error, as soon as the startup fails.
+     */
+    public CompletableFuture<SELF> startAsync() {
+        return startAsync(runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-container-start-" + START_THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Starts the container using the given executor.
+     *
+     * @see #startAsync()
+     */
+    public CompletableFuture<SELF> startAsync(Executor executor) {
+        requireNonNull(executor, "executor must not be null");
+        return CompletableFuture.supplyAsync(() -> {
+            start();
+            return self();
+        }, executor);
     }
 
     @Override
@@ -347,12 +604,15 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     /**
      * Maps the provided {@code extensionClassFolder} as an exploded extension.jar to the {@code deploymentLocation}.
+     * The jar file is packaged reproducibly and taken from an on-disk cache, if the class folder didn't change.
+     * Also called by {@link #configure()} for every location of {@link #withProviderClassesFrom(String...)},
+     * after all of these have been packaged in parallel.
      *
      * @param deploymentLocation   the target deployments location of the Keycloak server.
      * @param extensionName        the name suffix of the created extension.
      * @param extensionClassFolder a path relative to the current classpath root.
      */
-    @SuppressWarnings({"ResultOfMethodCallIgnored", "SameParameterValue"})
+    @SuppressWarnings("SameParameterValue")
     protected void createKeycloakExtensionDeployment(String deploymentLocation, String extensionName, String extensionClassFolder) {
 
         requireNonNull(deploymentLocation, "deploymentLocation must not be null");
@@ -361,17 +621,10 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
         String classesLocation = resolveExtensionClassLocation(extensionClassFolder);
         if (new File(classesLocation).exists()) {
-            final File file;
             try {
-                file = Files.createTempFile("keycloak", ".jar").toFile();
-                file.setReadable(true, false);
-                file.deleteOnExit();
-                ShrinkWrap.create(JavaArchive.class, extensionName)
-                    .as(ExplodedImporter.class)
-                    .importDirectory(classesLocation)
-                    .as(ZipExporter.class)
-                    .exportTo(file, true);
-                withCopyFileToContainer(MountableFile.forHostPath(file.getAbsolutePath()), deploymentLocation + "/" + extensionName);
+                Path jar = packagedProviderJars.get(Paths.get(classesLocation));
+                File file = (jar != null ? jar : ProviderJarCache.getOrCreate(Paths.get(classesLocation), logger())).toFile();
+                copyProviderFileToContainer(deploymentLocation + "/" + extensionName, file);
             } catch (IOException e) {
                 throw new UncheckedIOException(e);
             }
@@ -379,6 +632,184 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     }
 
+    private void copyProviderFileToContainer(String containerPath, File file) {
+        if (!configuring) {
+            // configure() clears the container files it collects, thus these are deployed by every configure()
+            registeredProviderFiles.put(containerPath, file);
+        } else if (optimizedImageCache) {
+            optimizedImageProviderFiles.put(containerPath, file);
+        } else {
+            addFileToContainer(MountableFile.forHostPath(file.getAbsolutePath()), containerPath);
+        }
+    }
+
+    private void addFileToContainer(MountableFile file, String containerPath) {
+        containerFiles.put(containerPath, file);
+        if (!singleArchiveCopy || !fileArchive.add(containerPath, file)) {
+            withCopyFileToContainer(file, containerPath);
+        }
+    }
+
+    private static String getDatabaseVendor(String jdbcUrl) {
+        return DATABASE_VENDORS.entrySet().stream()
+            .filter(vendor -> jdbcUrl.startsWith(vendor.getKey()))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unsupported database for Keycloak: " + jdbcUrl));
+    }
+
+    /**
+     * Returns the JDBC url of the database, as reachable from the Keycloak container through the shared network.
+     */
+    private String getDatabaseUrlInNetwork() {
+        String jdbcUrl = database.getJdbcUrl();
+        for (Integer port : database.getExposedPorts()) {
+            String hostAndPort = database.getHost() + ":" + database.getMappedPort(port);
+            if (jdbcUrl.contains(hostAndPort)) {
+                return jdbcUrl.replace(hostAndPort, DATABASE_NETWORK_ALIAS + ":" + port);
+            }
+        }
+        throw new IllegalStateException("Failed to determine the database port of " + jdbcUrl);
+    }
+
+    /**
+     * Appends the given JVM options to the JAVA_OPTS_APPEND environment variable. Options appended by a previous
+     * configuration of this container are replaced, options set by the user with {@code withEnv()} are kept.
+     */
+    private void applyJavaOptions(List<String> javaOptions) {
+        String userOptions = getEnvMap().get(JAVA_OPTS_APPEND);
+        if (userOptions != null && appliedJavaOptions != null && userOptions.endsWith(appliedJavaOptions)) {
+            userOptions = userOptions.substring(0, userOptions.length() - appliedJavaOptions.length()).trim();
+        }
+        appliedJavaOptions = String.join(" ", javaOptions);
+        if (isNotBlank(userOptions)) {
+            withEnv(JAVA_OPTS_APPEND, appliedJavaOptions.isEmpty() ? userOptions : userOptions + " " + appliedJavaOptions);
+        } else if (!appliedJavaOptions.isEmpty()) {
+            withEnv(JAVA_OPTS_APPEND, appliedJavaOptions);
+        }
+    }
+
+    /**
+     * Switches to an image with an AppCDS archive, which has been dumped at the end of a training start with the
+     * current configuration. If there's no such image yet, it is created first by running the training start once
+     * in a separate container. Realm import files are not part of the training start, as its data directory is
+     * not kept in the image.
+     */
+    private void resolveClassDataSharingImage(List<String> commandParts) {
+        Map<String, String> env = new TreeMap<>(getEnvMap());
+        env.keySet().removeIf(name -> name.startsWith("DEBUG"));
+
+        Map<String, MountableFile> files = new TreeMap<>(containerFiles);
+        files.keySet().removeIf(containerPath -> containerPath.startsWith(DEFAULT_REALM_IMPORT_FILES_LOCATION));
+
+        List<String> trainingCommand = new ArrayList<>(commandParts);
+        trainingCommand.remove("--import-realm");
+
+        // the base image, or the optimized image of this configuration, but never a class data sharing image of a previous start
+        String imageName = getDockerImageName();
+        ContentHash hash = ContentHash.create()
+            .add(imageName)
+            .add(getDockerClient().inspectImageCmd(imageName).exec().getId())
+            .add(env)
+            .add(String.join(" ", trainingCommand));
+        addContainerFiles(hash, files);
+
+        Map<String, String> imageEnv = new TreeMap<>(env);
+        imageEnv.merge(JAVA_OPTS_APPEND, "-XX:SharedArchiveFile=" + ClassDataSharingImageCache.ARCHIVE_FILE, (a, b) -> a + " " + b);
+
+        ClassDataSharingImageCache imageCache = new ClassDataSharingImageCache(getDockerClient(), logger());
+        String cdsImageName = imageCache.resolve(hash.toHex(), () -> {
+            Map<String, String> trainingEnv = new TreeMap<>(env);
+            trainingEnv.merge(JAVA_OPTS_APPEND, "-XX:ArchiveClassesAtExit=" + ClassDataSharingImageCache.ARCHIVE_FILE, (a, b) -> a + " " + b);
+            GenericContainer<?> trainingContainer = new GenericContainer<>(imageName)
+                .withEnv(trainingEnv)
+                .withCommand(trainingCommand.toArray(new String[0]))
+                .withExposedPorts(KEYCLOAK_PORT_MGMT)
+                // keeps the database of the training start out of the image
+                .withTmpFs(Map.of(KEYCLOAK_HOME_DIR + "/data", "rw"))
+                .withLogConsumer(new Slf4jLogConsumer(logger()))
+                .waitingFor(new FailFastWaitStrategy(contextPath + "/health/ready", KEYCLOAK_PORT_MGMT, useTls,
+                    FailFastWaitStrategy.DEFAULT_FATAL_LOG_PATTERNS).withStartupTimeout(startupTimeout));
+            files.forEach((containerPath, file) -> trainingContainer.withCopyFileToContainer(file, containerPath));
+            return trainingContainer;
+        }, imageEnv);
+        setImage(CompletableFuture.completedFuture(cdsImageName));
+    }
+
+    /**
+     * Restores the data directory from a snapshot, taken right after the import of the realm import files.
+     * If there's no snapshot for the current configuration yet, it is created first by running the
+     * Keycloak import command once in a separate, one-shot container.
+     */
+    private void restoreRealmImportSnapshot(Map<String, MountableFile> importFileCopies) {
+        Map<String, String> env = new TreeMap<>(getEnvMap());
+        env.keySet().removeIf(name -> name.startsWith("DEBUG"));
+
+        Map<String, MountableFile> files = new TreeMap<>(containerFiles);
+        files.putAll(importFileCopies);
+
+        // the base image, or the optimized image of this configuration, but never a class data sharing image of a previous start
+        String imageName = getDockerImageName();
+        ContentHash hash = ContentHash.create()
+            .add(imageName)
+            .add(getDockerClient().inspectImageCmd(imageName).exec().getId())
+            .add(env);
+        addContainerFiles(hash, files);
+
+        RealmImportSnapshot snapshot = new RealmImportSnapshot(hash.toHex());
+        if (snapshot.exists()) {
+            logger().debug("Restoring realm import snapshot {}", snapshot.getSnapshotFile());
+        } else {
+            List<String> importCommand = new ArrayList<>();
+            if (useVerbose) {
+                importCommand.add("--verbose");
+            }
+            importCommand.add("import");
+            importCommand.add("--dir=" + DEFAULT_REALM_IMPORT_FILES_LOCATION);
+            if (optimizeFlag) {
+                importCommand.add("--optimized");
+            }
+            GenericContainer<?> importContainer = new GenericContainer<>(getImage())
+                .withEnv(env)
+                .withCommand(importCommand.toArray(new String[0]))
+                .withLogConsumer(new Slf4jLogConsumer(logger()))
+                .withStartupCheckStrategy(new OneShotStartupCheckStrategy().withTimeout(startupTimeout));
+            files.forEach((containerPath, file) -> importContainer.withCopyFileToContainer(file, containerPath));
+            snapshot.create(importContainer, KEYCLOAK_HOME_DIR + "/data", logger());
+        }
+        withCopyToContainer(snapshot, KEYCLOAK_HOME_DIR);
+    }
+
+    /**
+     * Writes a copy of the given realm import file, with the additional key provider of the token forging key.
+     */
+    @SuppressWarnings("unchecked")
+    private MountableFile withTokenForgingKey(String importFile) {
+        Path path = Paths.get(MountableFile.forClasspathResource(importFile).getResolvedPath());
+        try (InputStream in = Files.newInputStream(path)) {
+            Map<String, Object> realm = JsonSerialization.readValue(in, Map.class);
+            tokenForger.addKeyProvider(realm);
+            Path copy = Files.createTempFile("realm-with-forging-key", ".json");
+            copy.toFile().deleteOnExit();
+            Files.write(copy, JsonSerialization.writeValueAsBytes(realm));
+            return MountableFile.forHostPath(copy, 0644);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to add token forging key to realm import file " + importFile, e);
+        }
+    }
+
+    private static void addContainerFiles(ContentHash hash, Map<String, MountableFile> files) {
+        files.forEach((containerPath, file) -> {
+            Path path = Paths.get(file.getResolvedPath());
+            hash.add(containerPath);
+            if (Files.isDirectory(path)) {
+                hash.addTree(path);
+            } else {
+                hash.addFile(path);
+            }
+        });
+    }
+
     protected String resolveExtensionClassLocation(String extensionClassFolder) {
         return Paths.get(MountableFile.forClasspathResource(".").getResolvedPath())
             .getParent()
@@ -420,6 +851,54 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
     public SELF withRamPercentage(int initialRamPercentage, int maxRamPercentage) {
         this.initialRamPercentage = initialRamPercentage;
         this.maxRamPercentage = maxRamPercentage;
+        this.ramPercentageSet = true;
+        return self();
+    }
+
+    /**
+     * Limits the CPUs and the memory of the container. Unless set explicitly with {@link #withRamPercentage(int, int)},
+     * the heap is derived from the memory limit (50% initial, 70% max heap; a fixed heap for profiles with a fixed heap),
+     * instead of being a percentage of the host's memory, so that the server behaves the same on every machine.
+     *
+     * @param cpus                 the number of CPUs, may be fractional, e.g. {@code 1.5}.
+     * @param memoryLimitMegabytes the memory limit in megabytes, swapping is disabled.
+     */
+    public SELF withResourceLimits(double cpus, long memoryLimitMegabytes) {
+        if (cpus <= 0 || memoryLimitMegabytes <= 0) {
+            throw new IllegalArgumentException("cpus and memoryLimitMegabytes must be greater than 0");
+        }
+        this.cpuLimit = cpus;
+        this.memoryLimitMegabytes = memoryLimitMegabytes;
+        return self();
+    }
+
+    private void applyResourceLimits(CreateContainerCmd cmd) {
+        HostConfig hostConfig = cmd.getHostConfig();
+        if (hostConfig == null) {
+            return;
+        }
+        if (cpuLimit > 0) {
+            hostConfig.withNanoCPUs((long) (cpuLimit * 1_000_000_000L));
+        }
+        if (memoryLimitMegabytes > 0) {
+            long memoryLimit = memoryLimitMegabytes * 1024 * 1024;
+            hostConfig.withMemory(memoryLimit).withMemorySwap(memoryLimit);
+        }
+    }
+
+    /**
+     * Tunes the JVM of the Keycloak server with the given profile: compiler and garbage collector options are
+     * appended to JAVA_OPTS_APPEND, the heap is sized in JAVA_OPTS_KC_HEAP.
+     * A subsequent call of {@link #withRamPercentage(int, int)} overrides the heap sizing of the profile.
+     *
+     * @param jvmProfile the profile, e.g. {@link JvmProfile#FAST_STARTUP} for test suites
+     *                   or {@link JvmProfile#LOW_LATENCY} for benchmarks.
+     */
+    public SELF withJvmProfile(JvmProfile jvmProfile) {
+        requireNonNull(jvmProfile, "jvmProfile must not be null");
+        this.jvmProfile = jvmProfile;
+        this.initialRamPercentage = jvmProfile.getInitialRamPercentage();
+        this.maxRamPercentage = jvmProfile.getMaxRamPercentage();
         return self();
     }
 
@@ -450,6 +929,88 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         return self();
     }
 
+    /**
+     * Injects an RSA signing key, generated once per JVM, into all imported realms (and realms leased from them)
+     * as additional key provider with the lowest priority, so Keycloak keeps signing its own tokens with its own keys.
+     * Realms without key providers get Keycloak's default key providers injected as well, which Keycloak would
+     * otherwise only create for realms imported without any key provider.
+     * Tokens can then be signed in-process with {@link #forgeToken(String, Map)}, without a round trip to Keycloak.
+     */
+    public SELF withTokenForging() {
+        return withTokenForging(TokenForger.defaultKeyPair());
+    }
+
+    /**
+     * Injects the given RSA signing key into all imported realms.
+     *
+     * @see #withTokenForging()
+     */
+    public SELF withTokenForging(KeyPair keyPair) {
+        requireNonNull(keyPair, "keyPair must not be null");
+        this.tokenForger = new TokenForger(keyPair);
+        return self();
+    }
+
+    /**
+     * Fetches the OpenID Connect discovery documents of all imported realms right after the startup,
+     * so that the first call of an endpoint or token helper doesn't have to.
+     */
+    public SELF withOpenIdConfigurationPreload() {
+        this.openIdConfigPreload = true;
+        return self();
+    }
+
+    /**
+     * Caches the tokens of {@link #getAccessToken(String, String, String, String, String)} and
+     * {@link #getClientCredentialsToken(String, String, String)} per realm, client and subject,
+     * until they expire minus 30 seconds.
+     *
+     * @see #withTokenCache(Duration)
+     */
+    public SELF withTokenCache() {
+        return withTokenCache(DEFAULT_TOKEN_EXPIRY_SKEW);
+    }
+
+    /**
+     * Caches the tokens of {@link #getAccessToken(String, String, String, String, String)} and
+     * {@link #getClientCredentialsToken(String, String, String)} per realm, client and subject.
+     * A cached token is reused until it expires minus the given skew, then it is refreshed with its refresh token,
+     * instead of authenticating again. A new grant is only requested, if the refresh fails.
+     * The {@code getTokenResponse} methods always request new tokens.
+     *
+     * @param expirySkew the time before the expiry of a token, from which on it is not reused anymore.
+     */
+    public SELF withTokenCache(Duration expirySkew) {
+        requireNonNull(expirySkew, "expirySkew must not be null");
+        this.tokenCache = new TokenCache(expirySkew);
+        return self();
+    }
+
+    /**
+     * Sets the timeouts of the HTTP client used by the OIDC endpoint and token helpers.
+     * Defaults are 10 seconds to connect and 30 seconds per request.
+     *
+     * @param connectTimeout the timeout to establish a connection.
+     * @param requestTimeout the timeout of a single request, until the response headers are received.
+     */
+    public SELF withHttpTimeouts(Duration connectTimeout, Duration requestTimeout) {
+        this.httpConnectTimeout = requireNonNull(connectTimeout, "connectTimeout must not be null");
+        this.httpRequestTimeout = requireNonNull(requestTimeout, "requestTimeout must not be null");
+        closeHttpClient();
+        return self();
+    }
+
+    /**
+     * Adds further log patterns (regular expressions), which indicate a failed boot of Keycloak.
+     * As soon as a log line matches one of these, or one of the default patterns, the startup is aborted
+     * with the offending lines, instead of waiting for the startup timeout.
+     * Has no effect, if a custom wait strategy is set.
+     */
+    public SELF withFatalLogPatterns(String... patterns) {
+        this.fatalLogPatterns.addAll(Arrays.asList(patterns));
+        return self();
+    }
+
     public SELF useTls() {
         // server.keystore is provided with this testcontainer
         return useTlsKeystore("tls.jks", "changeit");
@@ -579,6 +1140,86 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         return self().withProductionMode();
     }
 
+    /**
+     * Runs {@code kc.sh build} once with the configured build options (features, metrics, TLS client auth,
+     * context path) and providers, and keeps the result as a local image, tagged with a hash of all these inputs.
+     * Subsequent starts with the same configuration reuse this image and start Keycloak with the "--optimized" flag,
+     * so the augmentation step is only executed once.
+     * Setting this option will implicitly enable production mode!
+     */
+    public SELF withOptimizedImageCache() {
+        this.optimizedImageCache = true;
+        return self().withOptimizedFlag();
+    }
+
+    /**
+     * Collects all files, that are copied into the container (realm import files, provider jars and libs,
+     * TLS certificates, keystores and truststores), into one single tar archive below {@code /opt/keycloak}
+     * and uploads it with one single copy operation, instead of one copy operation per file.
+     */
+    public SELF withSingleArchiveCopy() {
+        this.singleArchiveCopy = true;
+        return self();
+    }
+
+    /**
+     * Takes a snapshot of the data directory right after the import of the realm import files, and restores it on
+     * subsequent starts, instead of importing the realms again. The snapshot is stored on disk, keyed by a hash of
+     * the image, the container configuration and all files copied into the container, including the import files.
+     * This only applies to the default (dev-file) database.
+     */
+    public SELF withRealmImportSnapshot() {
+        this.realmImportSnapshot = true;
+        return self();
+    }
+
+    /**
+     * Runs Keycloak on the given database, instead of the default (dev-file) database.
+     * The database container is attached to a shared network (the one of the database container, if already set,
+     * or a new one) and started before Keycloak, the {@code KC_DB*} variables are set from its JDBC url and credentials.
+     * Supported are PostgreSQL, MySQL, MariaDB, MS SQL Server and Oracle containers.
+     *
+     * @param database the database container, which must not have been started yet.
+     */
+    public SELF withDatabase(JdbcDatabaseContainer<?> database) {
+        requireNonNull(database, "database must not be null");
+        if (database.getNetwork() == null) {
+            database.withNetwork(Network.newNetwork());
+        }
+        if (!database.getNetworkAliases().contains(DATABASE_NETWORK_ALIAS)) {
+            database.withNetworkAliases(DATABASE_NETWORK_ALIAS);
+        }
+        this.database = database;
+        withNetwork(database.getNetwork());
+        return dependsOn(database);
+    }
+
+    /**
+     * Mounts the write-heavy directories of the data directory (dev-file database, transaction logs and temporary
+     * files) as tmpfs, instead of keeping them on the container filesystem. The realm import directory stays on the
+     * container filesystem, so that {@code --import-realm} keeps working.
+     * Can't be combined with {@link #withRealmImportSnapshot()}.
+     */
+    public SELF withInMemoryDataDirectory() {
+        this.inMemoryDataDirectory = true;
+        return self();
+    }
+
+    /**
+     * Runs a training start of Keycloak once with the current configuration, lets the JVM dump an AppCDS
+     * (class data sharing) archive of all loaded classes at its end, and keeps the result as a local image,
+     * tagged with a hash of the image, the configuration and all files copied into the container.
+     * Subsequent starts with the same configuration use this image and pass {@code -XX:SharedArchiveFile}
+     * to the JVM, so most classes are mapped from the archive instead of being loaded and verified again.
+     * Works best together with {@link #withOptimizedImageCache()}, as a re-augmentation at startup changes
+     * the application jars and thus invalidates the archive.
+     * Can't be combined with {@link #withDatabase(JdbcDatabaseContainer)}.
+     */
+    public SELF withClassDataSharing() {
+        this.classDataSharing = true;
+        return self();
+    }
+
     @Override
     public SELF withImagePullPolicy(ImagePullPolicy imagePullPolicy) {
         this.imagePullPolicy = imagePullPolicy;
@@ -591,7 +1232,7 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
      */
     public Keycloak getKeycloakAdminClient() {
         if (useTls) {
-            return Keycloak.getInstance(getAuthServerUrl(), MASTER_REALM, getAdminUsername(), getAdminPassword(), ADMIN_CLI_CLIENT, buildSslContext());
+            return Keycloak.getInstance(getAuthServerUrl(), MASTER_REALM, getAdminUsername(), getAdminPassword(), ADMIN_CLI_CLIENT, getSslContext());
         } else {
             return Keycloak.getInstance(getAuthServerUrl(), MASTER_REALM, getAdminUsername(), getAdminPassword(), ADMIN_CLI_CLIENT);
         }
@@ -606,17 +1247,126 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         clients.get(client.getId()).update(client);
     }
 
+    /**
+     * Clones the given template realm, which has to be part of the configured realm import files, into a new,
+     * uniquely named realm. The clone is created with one single realm import call, all ids of the template are
+     * omitted, so that new ones are generated. Closing the returned lease deletes the realm again.
+     *
+     * <pre>{@code
+     * try (RealmLease realm = keycloak.leaseRealm("test")) {
+     *     String token = keycloak.getAccessToken(realm.getRealmName(), "client", "user", "password");
+     * }
+     * }</pre>
+     *
+     * @param templateRealmName the name of the template realm, as configured in one of the realm import files.
+     * @return the lease of the new realm.
+     */
+    public RealmLease leaseRealm(String templateRealmName) {
+        requireNonNull(templateRealmName, "templateRealmName must not be null");
+        byte[] template = realmTemplates.computeIfAbsent(templateRealmName, this::loadRealmTemplate);
+        String realmName = templateRealmName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Keycloak keycloak = getLeaseAdminClient();
+        try {
+            RealmRepresentation realm = JsonSerialization.readValue(template, RealmRepresentation.class);
+            realm.setRealm(realmName);
+            keycloak.realms().create(realm);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read template realm " + templateRealmName, e);
+        }
+        return new RealmLease(realmName, keycloak);
+    }
+
+    /**
+     * Returns the admin client for leasing realms, which is created once per container start,
+     * so its connections and admin token are reused by all leases.
+     */
+    private Keycloak getLeaseAdminClient() {
+        Keycloak client = leaseAdminClient;
+        if (client == null) {
+            synchronized (this) {
+                client = leaseAdminClient;
+                if (client == null) {
+                    client = getKeycloakAdminClient();
+                    leaseAdminClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private synchronized void closeLeaseAdminClient() {
+        Keycloak client = leaseAdminClient;
+        leaseAdminClient = null;
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] loadRealmTemplate(String templateRealmName) {
+        for (String importFile : importFiles) {
+            Path path = Paths.get(MountableFile.forClasspathResource(importFile).getResolvedPath());
+            try (InputStream in = Files.newInputStream(path)) {
+                Map<?, ?> realm = JsonSerialization.readValue(in, Map.class);
+                if (templateRealmName.equals(realm.get("realm"))) {
+                    removeIds(realm);
+                    if (tokenForger != null) {
+                        // the template is read from the original import file, without the injected key
+                        tokenForger.addKeyProvider((Map<String, Object>) realm);
+                    }
+                    return JsonSerialization.writeValueAsBytes(realm);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read realm import file " + importFile, e);
+            }
+        }
+        throw new IllegalArgumentException("No realm import file found for realm " + templateRealmName);
+    }
+
+    private static void removeIds(Object node) {
+        if (node instanceof Map) {
+            ((Map<?, ?>) node).keySet().removeAll(REALM_TEMPLATE_ID_FIELDS);
+            ((Map<?, ?>) node).values().forEach(ExtendableKeycloakContainer::removeIds);
+        } else if (node instanceof List) {
+            ((List<?>) node).forEach(ExtendableKeycloakContainer::removeIds);
+        }
+    }
+
+    /**
+     * Returns the SSL context trusting the server certificate, which is built once per container start.
+     * Reusing the context across all helper requests and admin clients also reuses its client session cache,
+     * so that TLS sessions are resumed instead of doing a full handshake per connection.
+     */
+    // package-private for tests
+    SSLContext getSslContext() {
+        SSLContext context = sslContext;
+        if (context == null) {
+            synchronized (this) {
+                context = sslContext;
+                if (context == null) {
+                    context = buildSslContext();
+                    sslContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
     private SSLContext buildSslContext() {
         SSLContext sslContext;
         try {
             KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
             if (this.tlsKeystoreFilename != null) {
-                keyStore.load(loadResourceAsStream(this.tlsKeystoreFilename), this.tlsKeystorePassword.toCharArray());
+                try (InputStream in = loadResourceAsStream(this.tlsKeystoreFilename)) {
+                    keyStore.load(in, this.tlsKeystorePassword.toCharArray());
+                }
             } else if (this.tlsCertificateFilename != null) {
                 keyStore.load(null);
                 CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
-                X509Certificate certificate = (X509Certificate) certificateFactory.generateCertificate(loadResourceAsStream(this.tlsCertificateFilename));
-                keyStore.setCertificateEntry(certificate.getSubjectX500Principal().getName(), certificate);
+                try (InputStream in = loadResourceAsStream(this.tlsCertificateFilename)) {
+                    X509Certificate certificate = (X509Certificate) certificateFactory.generateCertificate(in);
+                    keyStore.setCertificateEntry(certificate.getSubjectX500Principal().getName(), certificate);
+                }
             }
             TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
             tmf.init(keyStore);
@@ -677,6 +1427,18 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         return contextPath;
     }
 
+    /**
+     * Returns the timings of the phases of the last startup of this container, parsed from the container log.
+     *
+     * @throws IllegalStateException if the container hasn't been started yet.
+     */
+    public StartupReport getStartupReport() {
+        if (startupReport == null) {
+            throw new IllegalStateException("Keycloak container has not been started yet");
+        }
+        return startupReport;
+    }
+
     public Duration getStartupTimeout() {
         return startupTimeout;
     }
@@ -691,28 +1453,92 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
         return String.format("%s/realms/%s/.well-known/openid-configuration", getAuthServerUrl(), realmName);
     }
 
+    /**
+     * Returns the OpenID Connect discovery document of the given realm. It is fetched and parsed once per realm,
+     * and cached until the container is stopped.
+     */
+    public OpenIdConfiguration getOpenIdConfiguration(String realmName) {
+        return openIdConfigCache.computeIfAbsent(realmName, k -> {
+            String openIdConfigUrl = getOpenIdConfigurationUrl(realmName);
+            try {
+                return new OpenIdConfiguration(JsonFields.parse(doGet(openIdConfigUrl).asResponse().getBody()));
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to fetch OpenID configuration from " + openIdConfigUrl, e);
+            }
+        });
+    }
+
     public String getIssuerUrl(String realmName) {
-        return getOpenIdConfigValue(realmName, "issuer");
+        return getOpenIdConfigValue(realmName, "issuer", OpenIdConfiguration::getIssuer);
     }
 
     public String getAuthorizationEndpoint(String realmName) {
-        return getOpenIdConfigValue(realmName, "authorization_endpoint");
+        return getOpenIdConfigValue(realmName, "authorization_endpoint", OpenIdConfiguration::getAuthorizationEndpoint);
     }
 
     public String getTokenEndpoint(String realmName) {
-        return getOpenIdConfigValue(realmName, "token_endpoint");
+        return getOpenIdConfigValue(realmName, "token_endpoint", OpenIdConfiguration::getTokenEndpoint);
     }
 
     public String getJwksUri(String realmName) {
-        return getOpenIdConfigValue(realmName, "jwks_uri");
+        return getOpenIdConfigValue(realmName, "jwks_uri", OpenIdConfiguration::getJwksUri);
     }
 
     public String getUserInfoEndpoint(String realmName) {
-        return getOpenIdConfigValue(realmName, "userinfo_endpoint");
+        return getOpenIdConfigValue(realmName, "userinfo_endpoint", OpenIdConfiguration::getUserInfoEndpoint);
     }
 
     public String getEndSessionEndpoint(String realmName) {
-        return getOpenIdConfigValue(realmName, "end_session_endpoint");
+        return getOpenIdConfigValue(realmName, "end_session_endpoint", OpenIdConfiguration::getEndSessionEndpoint);
+    }
+
+    /**
+     * Verifies signature, expiry and issuer of the given token of the given realm locally, without a request to
+     * Keycloak. The public keys of the realm's JWKS are cached by their key id, the JWKS is only fetched again,
+     * if a token refers to an unknown key id.
+     * Supported are RSA (RS256/384/512, PS256/384/512) and EC (ES256/384/512) signatures.
+     *
+     * @return the claims of the token.
+     * @throws IllegalArgumentException if the token is malformed, its signature is invalid, it has expired
+     *                                  or it has been issued by another realm.
+     */
+    public Map<String, Object> verifyToken(String realmName, String token) {
+        requireNonNull(token, "token must not be null");
+        LocalTokenVerifier verifier = tokenVerifiers.computeIfAbsent(realmName,
+            k -> new LocalTokenVerifier(getIssuerUrl(realmName), () -> fetchJwks(realmName)));
+        return verifier.verify(token);
+    }
+
+    /**
+     * Signs a token for the given realm in-process, with the key injected by {@link #withTokenForging()}.
+     * The token is accepted by Keycloak and by every resource server verifying tokens with the realm's JWKS.
+     * The issuer, issued at, expiry (in 5 minutes), token id and type claims are set by default,
+     * the given claims are added and may override these.
+     *
+     * <pre>{@code
+     * String token = keycloak.forgeToken("test", Map.of("sub", userId, "azp", "client", "scope", "openid"));
+     * }</pre>
+     *
+     * @param claims the claims of the token, e.g. {@code sub}, {@code azp}, {@code scope} or {@code realm_access}.
+     * @throws IllegalStateException if token forging is not enabled, or the realm has not been imported.
+     */
+    public String forgeToken(String realmName, Map<String, Object> claims) {
+        requireNonNull(claims, "claims must not be null");
+        if (tokenForger == null) {
+            throw new IllegalStateException("Token forging is not enabled, see withTokenForging()");
+        }
+        String header = forgedTokenHeaders.computeIfAbsent(realmName,
+            k -> TokenForger.encodeHeader(tokenForger.findKeyId(fetchJwks(realmName))));
+        return tokenForger.forge(header, getIssuerUrl(realmName), claims);
+    }
+
+    private String fetchJwks(String realmName) {
+        String jwksUri = getJwksUri(realmName);
+        try {
+            return doGet(jwksUri).asResponse().getBody();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to fetch JWKS from " + jwksUri, e);
+        }
     }
 
     public String getAccessToken(String realmName, String clientId, String username, String password) {
@@ -720,28 +1546,87 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
     }
 
     public String getAccessToken(String realmName, String clientId, String clientSecret, String username, String password) {
+        if (tokenCache != null) {
+            return tokenCache.get(Arrays.asList(realmName, clientId, clientSecret, username, password),
+                () -> getTokenResponse(realmName, clientId, clientSecret, username, password),
+                refreshToken -> refreshToken(realmName, clientId, clientSecret, refreshToken)).getAccessToken();
+        }
         return getTokenResponse(realmName, clientId, clientSecret, username, password).getAccessToken();
     }
 
     public String getClientCredentialsToken(String realmName, String clientId, String clientSecret) {
+        if (tokenCache != null) {
+            return tokenCache.get(Arrays.asList(realmName, clientId, clientSecret),
+                () -> getClientCredentialsTokenResponse(realmName, clientId, clientSecret),
+                refreshToken -> refreshToken(realmName, clientId, clientSecret, refreshToken)).getAccessToken();
+        }
         return getClientCredentialsTokenResponse(realmName, clientId, clientSecret).getAccessToken();
     }
 
+    public ManagedToken manageToken(String realmName, String clientId, String username, String password) {
+        return manageToken(realmName, clientId, null, username, password);
+    }
+
+    /**
+     * Requests a token with the password grant and keeps renewing it in the background, 30 seconds before it expires,
+     * so long-running tests never use an expired token. The current token is read from the returned handle without
+     * blocking. The renewal stops, when the handle is closed or the container is stopped.
+     *
+     * <pre>{@code
+     * ManagedToken token = keycloak.manageToken("test", "client", "secret", "user", "password");
+     * given().auth().oauth2(token.getAccessToken())...
+     * }</pre>
+     *
+     * @param clientSecret the client secret, may be {@code null} for public clients.
+     * @throws IllegalStateException if the initial token request fails.
+     */
+    public ManagedToken manageToken(String realmName, String clientId, String clientSecret, String username, String password) {
+        return newManagedToken(() -> getTokenResponse(realmName, clientId, clientSecret, username, password),
+            refreshToken -> refreshToken(realmName, clientId, clientSecret, refreshToken));
+    }
+
+    /**
+     * Requests a token with the client credentials grant and keeps renewing it in the background.
+     *
+     * @see #manageToken(String, String, String, String, String)
+     */
+    public ManagedToken manageClientCredentialsToken(String realmName, String clientId, String clientSecret) {
+        return newManagedToken(() -> getClientCredentialsTokenResponse(realmName, clientId, clientSecret),
+            refreshToken -> refreshToken(realmName, clientId, clientSecret, refreshToken));
+    }
+
+    private ManagedToken newManagedToken(Supplier<TokenResponse> grant, Function<String, TokenResponse> refresh) {
+        ManagedToken token = new ManagedToken(grant, refresh, getTokenRenewalScheduler(), DEFAULT_TOKEN_EXPIRY_SKEW,
+            logger(), managedTokens::remove);
+        managedTokens.add(token);
+        return token;
+    }
+
+    private synchronized ScheduledExecutorService getTokenRenewalScheduler() {
+        if (tokenRenewalScheduler == null) {
+            tokenRenewalScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "keycloak-token-renewal");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return tokenRenewalScheduler;
+    }
+
+    private synchronized void shutdownTokenRenewalScheduler() {
+        if (tokenRenewalScheduler != null) {
+            tokenRenewalScheduler.shutdownNow();
+            tokenRenewalScheduler = null;
+        }
+    }
+
     public TokenResponse getTokenResponse(String realmName, String clientId, String username, String password) {
         return getTokenResponse(realmName, clientId, null, username, password);
     }
 
     public TokenResponse getTokenResponse(String realmName, String clientId, String clientSecret, String username, String password) {
         try {
-            SimpleHttp request = withTls(SimpleHttp.doPost(getTokenEndpoint(realmName))
-                .param("grant_type", "password")
-                .param("client_id", clientId)
-                .param("username", username)
-                .param("password", password));
-            if (isNotBlank(clientSecret)) {
-                request.param("client_secret", clientSecret);
-            }
-            return parseTokenResponse(request.asResponse().getBody());
+            return parseTokenResponse(passwordGrantRequest(realmName, clientId, clientSecret, username, password).asResponse().getBody());
         } catch (IOException e) {
             throw new IllegalStateException("Failed to obtain access token for realm " + realmName, e);
         }
@@ -749,58 +1634,223 @@ public abstract class ExtendableKeycloakContainer<SELF extends ExtendableKeycloa
 
     public TokenResponse getClientCredentialsTokenResponse(String realmName, String clientId, String clientSecret) {
         try {
-            SimpleHttp.Response response = withTls(SimpleHttp.doPost(getTokenEndpoint(realmName))
-                .param("grant_type", "client_credentials")
-                .param("client_id", clientId)
-                .param("client_secret", clientSecret))
-                .asResponse();
-            return parseTokenResponse(response.getBody());
+            return parseTokenResponse(clientCredentialsGrantRequest(realmName, clientId, clientSecret).asResponse().getBody());
         } catch (IOException e) {
             throw new IllegalStateException("Failed to obtain client credentials token for realm " + realmName, e);
         }
     }
 
+    public CompletableFuture<TokenResponse> getTokenResponseAsync(String realmName, String clientId, String username, String password) {
+        return getTokenResponseAsync(realmName, clientId, null, username, password);
+    }
+
+    /**
+     * Requests a token response with the password grant, without blocking the calling thread on the token request.
+     * Only the first call per realm blocks, to fetch the token endpoint from the OpenID configuration.
+     * The returned future completes exceptionally, if the request fails or the response contains no access token.
+     */
+    public CompletableFuture<TokenResponse> getTokenResponseAsync(String realmName, String clientId, String clientSecret, String username, String password) {
+        return passwordGrantRequest(realmName, clientId, clientSecret, username, password).asResponseAsync()
+            .thenApply(response -> parseTokenResponse(response.getBody()));
+    }
+
+    /**
+     * Requests a token response with the client credentials grant, without blocking the calling thread on the token request.
+     *
+     * @see #getTokenResponseAsync(String, String, String, String, String)
+     */
+    public CompletableFuture<TokenResponse> getClientCredentialsTokenResponseAsync(String realmName, String clientId, String clientSecret) {
+        return clientCredentialsGrantRequest(realmName, clientId, clientSecret).asResponseAsync()
+            .thenApply(response -> parseTokenResponse(response.getBody()));
+    }
+
+    public MintedTokens mintTokens(String realmName, String clientId, Collection<Credentials> credentials) {
+        return mintTokens(realmName, clientId, null, credentials, DEFAULT_MINT_CONCURRENCY);
+    }
+
+    /**
+     * Requests tokens with the password grant for many users. The requests are sent asynchronously, at most
+     * {@code maxConcurrency} at a time, so no thread is blocked per request. Failed requests don't abort the others,
+     * their errors are part of the result, as well as the latency of every request.
+     *
+     * @param clientSecret   the client secret, may be {@code null} for public clients.
+     * @param credentials    the credentials of the users, one per username.
+     * @param maxConcurrency the maximum number of concurrent token requests.
+     * @return the token responses and errors, keyed by username.
+     * @throws IllegalArgumentException if the credentials contain a username more than once.
+     */
+    public MintedTokens mintTokens(String realmName, String clientId, String clientSecret, Collection<Credentials> credentials, int maxConcurrency) {
+        requireNonNull(credentials, "credentials must not be null");
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        // the results are keyed by username, so a duplicate would hide the result of another request
+        Set<String> usernames = new HashSet<>();
+        for (Credentials user : credentials) {
+            if (!usernames.add(user.getUsername())) {
+                throw new IllegalArgumentException("Duplicate username in credentials: " + user.getUsername());
+            }
+        }
+        Map<String, TokenResponse> tokens = new ConcurrentHashMap<>();
+        Map<String, Throwable> errors = new ConcurrentHashMap<>();
+        Map<String, Duration> latencies = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        long start = System.nanoTime();
+        try {
+            for (Credentials user : credentials) {
+                permits.acquire();
+                long requestStart = System.nanoTime();
+                CompletableFuture<TokenResponse> response;
+                try {
+                    response = getTokenResponseAsync(realmName, clientId, clientSecret, user.getUsername(), user.getPassword());
+                } catch (RuntimeException e) {
+                    response = CompletableFuture.failedFuture(e);
+                }
+                response.whenComplete((token, error) -> {
+                    latencies.put(user.getUsername(), Duration.ofNanos(System.nanoTime() - requestStart));
+                    if (error != null) {
+                        errors.put(user.getUsername(), error instanceof CompletionException ? error.getCause() : error);
+                    } else {
+                        tokens.put(user.getUsername(), token);
+                    }
+                    permits.release();
+                });
+            }
+            // all requests are done, as soon as all permits are released again
+            permits.acquire(maxConcurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while minting tokens for realm " + realmName, e);
+        }
+        return new MintedTokens(tokens, errors, latencies, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private SimpleHttp passwordGrantRequest(String realmName, String clientId, String clientSecret, String username, String password) {
+        SimpleHttp request = doPost(getTokenEndpoint(realmName))
+            .param("grant_type", "password")
+            .param("client_id", clientId)
+            .param("username", username)
+            .param("password", password);
+        if (isNotBlank(clientSecret)) {
+            request.param("client_secret", clientSecret);
+        }
+        return request;
+    }
+
+    private SimpleHttp clientCredentialsGrantRequest(String realmName, String clientId, String clientSecret) {
+        return doPost(getTokenEndpoint(realmName))
+            .param("grant_type", "client_credentials")
+            .param("client_id", clientId)
+            .param("client_secret", clientSecret);
+    }
+
+    /**
+     * Requests new tokens with the given refresh token (refresh token grant).
+     *
+     * @param clientSecret the client secret, may be {@code null} for public clients.
+     * @throws IllegalStateException if the refresh fails, e.g. because the refresh token has expired.
+     */
+    public TokenResponse refreshToken(String realmName, String clientId, String clientSecret, String refreshToken) {
+        try {
+            SimpleHttp request = doPost(getTokenEndpoint(realmName))
+                .param("grant_type", "refresh_token")
+                .param("client_id", clientId)
+                .param("refresh_token", refreshToken);
+            if (isNotBlank(clientSecret)) {
+                request.param("client_secret", clientSecret);
+            }
+            return parseTokenResponse(request.asResponse().getBody());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to refresh token for realm " + realmName, e);
+        }
+    }
+
     private TokenResponse parseTokenResponse(String body) {
+        Map<String, String> fields = JsonFields.parse(body);
+        String accessToken = fields.get("access_token");
+        if (accessToken == null) {
+            throw new IllegalStateException("No access_token in token response");
+        }
+        String expiresIn = fields.get("expires_in");
         return new TokenResponse(
-            parseJsonStringField(body, "access_token").orElseThrow(() -> new IllegalStateException("No access_token in token response")),
-            parseJsonStringField(body, "id_token").orElse(null),
-            parseJsonStringField(body, "refresh_token").orElse(null),
-            parseJsonIntField(body, "expires_in").orElse(0),
-            parseJsonStringField(body, "token_type").orElse("Bearer")
+            accessToken,
+            fields.get("id_token"),
+            fields.get("refresh_token"),
+            expiresIn != null ? Integer.parseInt(expiresIn) : 0,
+            fields.getOrDefault("token_type", "Bearer")
         );
     }
 
-    private String getOpenIdConfigValue(String realmName, String fieldName) {
-        String openIdConfigUrl = getOpenIdConfigurationUrl(realmName);
-        String body = openIdConfigCache.computeIfAbsent(realmName, k -> {
-            try {
-                return withTls(SimpleHttp.doGet(openIdConfigUrl)).asResponse().getBody();
-            } catch (IOException e) {
-                throw new IllegalStateException("Failed to fetch OpenID configuration from " + openIdConfigUrl, e);
-            }
-        });
-        return parseJsonStringField(body, fieldName)
-            .orElseThrow(() -> new IllegalStateException("No '" + fieldName + "' field found in OpenID configuration response from " + openIdConfigUrl));
+    private String getOpenIdConfigValue(String realmName, String fieldName, Function<OpenIdConfiguration, String> getter) {
+        String value = getter.apply(getOpenIdConfiguration(realmName));
+        if (value == null) {
+            throw new IllegalStateException("No '" + fieldName + "' field found in OpenID configuration response from " + getOpenIdConfigurationUrl(realmName));
+        }
+        return value;
     }
 
-    private SimpleHttp withTls(SimpleHttp simpleHttp) {
-        if (useTls) {
-            SSLContext sslContext = buildSslContext();
-            if (sslContext != null) {
-                simpleHttp.sslContext(sslContext);
+    private void preloadOpenIdConfigurations() {
+        for (String importFile : importFiles) {
+            Path path = Paths.get(MountableFile.forClasspathResource(importFile).getResolvedPath());
+            try {
+                String realmName = JsonFields.parse(Files.readString(path)).get("realm");
+                if (realmName != null) {
+                    getOpenIdConfiguration(realmName);
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger().warn("Failed to preload the OpenID configuration of realm import file {}", importFile, e);
             }
         }
-        return simpleHttp;
     }
 
-    private Optional<String> parseJsonStringField(String json, String fieldName) {
-        Matcher m = Pattern.compile("\"" + fieldName + "\"\\s*:\\s*\"([^\"]+)\"").matcher(json);
-        return m.find() ? Optional.of(m.group(1)) : Optional.empty();
+    private SimpleHttp doGet(String url) {
+        return SimpleHttp.doGet(getHttpClient(), url).timeout(httpRequestTimeout);
     }
 
-    private Optional<Integer> parseJsonIntField(String json, String fieldName) {
-        Matcher m = Pattern.compile("\"" + fieldName + "\"\\s*:\\s*(\\d+)").matcher(json);
-        return m.find() ? Optional.of(Integer.parseInt(m.group(1))) : Optional.empty();
+    private SimpleHttp doPost(String url) {
+        return SimpleHttp.doPost(getHttpClient(), url).timeout(httpRequestTimeout);
+    }
+
+    /**
+     * Returns the HTTP client of this container, which is created on first use and kept until the container is stopped,
+     * so that connections (and TLS sessions) are reused across all helper requests.
+     */
+    // package-private for tests
+    HttpClient getHttpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    HttpClient.Builder builder = HttpClient.newBuilder()
+                        // HTTP/2 is negotiated with TLS only, over plain HTTP every new connection would try an h2c upgrade
+                        .version(useTls ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(httpConnectTimeout);
+                    if (useTls) {
+                        SSLContext context = getSslContext();
+                        if (context != null) {
+                            builder.sslContext(context);
+                        }
+                    }
+                    client = builder.build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private synchronized void closeHttpClient() {
+        HttpClient client = httpClient;
+        httpClient = null;
+        // HttpClient is closeable as of Java 21, before its connections are released when it's garbage collected
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (Exception e) {
+                logger().debug("Failed to close HTTP client", e);
+            }
+        }
     }
 
     private boolean isNotBlank(String s) {
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.output.FrameConsumerResultCallback;
+import org.testcontainers.containers.output.OutputFrame;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Waits for the health readiness endpoint of Keycloak, while watching the log stream of the container for known
+ * fatal boot errors. As soon as such an error shows up, or the container exits, waiting is aborted immediately
+ * with the offending log lines, instead of polling the health endpoint until the startup timeout runs out.
+ * A server, which becomes ready nonetheless (e.g. a provider logged and handled the error), is not aborted.
+ * The health endpoint is polled with an increasing interval, starting short to detect a fast boot early.
+ */
+class FailFastWaitStrategy extends AbstractWaitStrategy {
+
+    static final List<String> DEFAULT_FATAL_LOG_PATTERNS = List.of(
+        "ERROR: Failed to start server",
+        "Exception in thread \"main\"",
+        "java\\.lang\\.ClassNotFoundException",
+        "java\\.lang\\.NoClassDefFoundError",
+        "Address already in use",
+        "Port\\(s\\) already bound",
+        "Unknown option: "
+    );
+
+    private static final Duration INITIAL_POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration MAX_POLL_INTERVAL = Duration.ofSeconds(1);
+    private static final double POLL_INTERVAL_FACTOR = 1.5;
+    private static final int REQUEST_TIMEOUT_MILLIS = 1000;
+    // follow-up lines of a fatal error (e.g. the cause) are logged right after the error itself
+    private static final long FATAL_LINES_GRACE_MILLIS = 500;
+
+    private final String path;
+    private final int port;
+    private final boolean useTls;
+    private final List<Pattern> fatalLogPatterns;
+
+    FailFastWaitStrategy(String path, int port, boolean useTls, List<String> fatalLogPatterns) {
+        this.path = path;
+        this.port = port;
+        this.useTls = useTls;
+        this.fatalLogPatterns = fatalLogPatterns.stream().map(Pattern::compile).collect(Collectors.toList());
+    }
+
+    @Override
+    protected void waitUntilReady() {
+        FatalLogLineCollector fatalLines = new FatalLogLineCollector(fatalLogPatterns);
+        try (FrameConsumerResultCallback logStream = followLogs(fatalLines)) {
+            String url = String.format("%s://%s:%d%s", useTls ? "https" : "http",
+                waitStrategyTarget.getHost(), waitStrategyTarget.getMappedPort(port), path);
+            long deadline = System.nanoTime() + startupTimeout.toNanos();
+            long interval = INITIAL_POLL_INTERVAL.toMillis();
+            long fatalSince = -1;
+
+            while (System.nanoTime() < deadline) {
+                if (fatalLines.isEmpty() && !waitStrategyTarget.isRunning()) {
+                    throw new ContainerLaunchException("Keycloak container exited before it became ready:\n"
+                        + waitStrategyTarget.getLogs());
+                }
+                // a fatal pattern may also match an error, which is logged but handled, so readiness wins
+                if (isReady(url)) {
+                    return;
+                }
+                if (!fatalLines.isEmpty()) {
+                    if (fatalSince < 0) {
+                        fatalSince = System.nanoTime();
+                    } else if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fatalSince) >= FATAL_LINES_GRACE_MILLIS) {
+                        throw new ContainerLaunchException("Keycloak failed to start:\n" + fatalLines);
+                    }
+                }
+
+                sleep(fatalSince < 0 ? interval : FATAL_LINES_GRACE_MILLIS / 5);
+                interval = Math.min((long) (interval * POLL_INTERVAL_FACTOR), MAX_POLL_INTERVAL.toMillis());
+            }
+
+            if (!fatalLines.isEmpty()) {
+                throw new ContainerLaunchException("Keycloak failed to start:\n" + fatalLines);
+            }
+            throw new ContainerLaunchException(String.format(
+                "Timed out waiting for Keycloak to become ready at %s after %d seconds", url, startupTimeout.getSeconds()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close the log stream of the container", e);
+        }
+    }
+
+    /**
+     * Follows the log stream of the container, until the returned callback is closed.
+     */
+    private FrameConsumerResultCallback followLogs(Consumer<OutputFrame> consumer) {
+        FrameConsumerResultCallback callback = new FrameConsumerResultCallback();
+        callback.addConsumer(OutputFrame.OutputType.STDOUT, consumer);
+        callback.addConsumer(OutputFrame.OutputType.STDERR, consumer);
+        return DockerClientFactory.instance().client().logContainerCmd(waitStrategyTarget.getContainerId())
+            .withStdOut(true)
+            .withStdErr(true)
+            .withFollowStream(true)
+            .withSince(0)
+            .exec(callback);
+    }
+
+    private boolean isReady(String url) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            if (connection instanceof HttpsURLConnection) {
+                // the readiness of the container is checked here, not its certificate
+                HttpsURLConnection httpsConnection = (HttpsURLConnection) connection;
+                httpsConnection.setSSLSocketFactory(insecureSslContext().getSocketFactory());
+                httpsConnection.setHostnameVerifier((hostname, session) -> true);
+            }
+            connection.setConnectTimeout(REQUEST_TIMEOUT_MILLIS);
+            connection.setReadTimeout(REQUEST_TIMEOUT_MILLIS);
+            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static SSLContext insecureSslContext() {
+        try {
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, new TrustManager[]{new X509TrustManager() {
+                @Override
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            }}, null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to create SSL context for health check", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for Keycloak to become ready", e);
+        }
+    }
+
+    /**
+     * Collects all log lines, matching one of the fatal patterns. Frames are split into lines first,
+     * as a single frame may contain multiple, or only parts of, log lines.
+     * Lines logged below the ERROR level, including their stack traces, are ignored.
+     */
+    private static class FatalLogLineCollector implements Consumer<OutputFrame> {
+
+        // the level of the default console log format, e.g. "2026-01-01 12:00:00,000 WARN  [category] (thread) message"
+        private static final Pattern LOG_LEVEL = Pattern.compile("^\\S+ \\S+ (TRACE|DEBUG|INFO|WARN|ERROR|FATAL)\\s");
+        private static final Pattern STACK_TRACE_LINE = Pattern.compile("^(\\s|Caused by: )");
+        private static final Set<String> LOW_LOG_LEVELS = Set.of("TRACE", "DEBUG", "INFO", "WARN");
+
+        private final List<Pattern> patterns;
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+        private final StringBuilder buffer = new StringBuilder();
+        // stack trace lines belong to the log line before, e.g. the ClassNotFoundException of a provider logged at WARN
+        private boolean lowLevel = false;
+
+        FatalLogLineCollector(List<Pattern> patterns) {
+            this.patterns = patterns;
+        }
+
+        @Override
+        public synchronized void accept(OutputFrame frame) {
+            if (frame.getBytes() == null) {
+                return;
+            }
+            buffer.append(frame.getUtf8String());
+            int end;
+            while ((end = buffer.indexOf("\n")) >= 0) {
+                check(buffer.substring(0, end));
+                buffer.delete(0, end + 1);
+            }
+        }
+
+        private void check(String line) {
+            Matcher level = LOG_LEVEL.matcher(line);
+            if (level.find()) {
+                lowLevel = LOW_LOG_LEVELS.contains(level.group(1));
+            } else if (!STACK_TRACE_LINE.matcher(line).find()) {
+                // e.g. the error output of the command line, which isn't logged with a level
+                lowLevel = false;
+            }
+            if (lowLevel) {
+                return;
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(line).find()) {
+                    lines.add(line.trim());
+                    return;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.join("\n", new ArrayList<>(lines));
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal single-pass reader for the top-level fields of a JSON object, as returned by the token and discovery
+ * endpoints. Strings are unescaped, numbers and booleans are kept as their literal text, {@code null} values and
+ * nested objects and arrays are skipped.
+ */
+class JsonFields {
+
+    private final String json;
+    private int pos;
+
+    private JsonFields(String json) {
+        this.json = json;
+    }
+
+    /**
+     * Reads all top-level scalar fields of the given JSON object.
+     *
+     * @throws IllegalStateException if the given string is not a JSON object.
+     */
+    static Map<String, String> parse(String json) {
+        return new JsonFields(json).readObject();
+    }
+
+    private Map<String, String> readObject() {
+        Map<String, String> fields = new HashMap<>();
+        expect('{');
+        if (peek() == '}') {
+            pos++;
+            return fields;
+        }
+        while (true) {
+            expect('"');
+            String name = readString();
+            expect(':');
+            char c = peek();
+            if (c == '"') {
+                pos++;
+                fields.put(name, readString());
+            } else if (c == '{' || c == '[') {
+                skipNested();
+            } else {
+                String literal = readLiteral();
+                if (!"null".equals(literal)) {
+                    fields.put(name, literal);
+                }
+            }
+            char next = next();
+            if (next == '}') {
+                return fields;
+            } else if (next != ',') {
+                throw invalid("',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Reads a string up to its closing quote, the opening quote has already been consumed.
+     */
+    private String readString() {
+        StringBuilder sb = null;
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb == null ? json.substring(start, pos - 1) : sb.toString();
+            }
+            if (c == '\\') {
+                if (sb == null) {
+                    sb = new StringBuilder(json.substring(start, pos - 1));
+                }
+                sb.append(readEscape());
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        throw invalid("'\"'");
+    }
+
+    private char readEscape() {
+        if (pos >= json.length()) {
+            throw invalid("escape sequence");
+        }
+        char c = json.charAt(pos++);
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (pos + 4 > json.length()) {
+                    throw invalid("unicode escape sequence");
+                }
+                try {
+                    char unicode = (char) Integer.parseInt(json.substring(pos, pos + 4), 16);
+                    pos += 4;
+                    return unicode;
+                } catch (NumberFormatException e) {
+                    throw invalid("unicode escape sequence");
+                }
+            default:
+                throw invalid("escape sequence");
+        }
+    }
+
+    private String readLiteral() {
+        int start = pos;
+        while (pos < json.length()) {
+            char c = json.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                break;
+            }
+            pos++;
+        }
+        if (start == pos) {
+            throw invalid("value");
+        }
+        return json.substring(start, pos);
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                return;
+            }
+        }
+        throw invalid("end of nested value");
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw invalid("'" + expected + "'");
+        }
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private char peek() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= json.length()) {
+            throw invalid("more input");
+        }
+        return json.charAt(pos);
+    }
+
+    private IllegalStateException invalid(String expected) {
+        return new IllegalStateException("Invalid JSON, expected " + expected + " at position " + pos);
+    }
+
+}
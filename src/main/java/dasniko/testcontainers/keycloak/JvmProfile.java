@@ -0,0 +1,57 @@
+package dasniko.testcontainers.keycloak;
+
+import java.util.List;
+
+/**
+ * Predefined JVM tuning profiles for the Keycloak server, see {@link ExtendableKeycloakContainer#withJvmProfile(JvmProfile)}.
+ * The heap is sized relative to the memory available to the container, like with
+ * {@link ExtendableKeycloakContainer#withRamPercentage(int, int)}.
+ * Keycloak selects the G1 garbage collector by default, thus it is disabled by profiles selecting another one.
+ */
+public enum JvmProfile {
+
+    /**
+     * C1 compiler only, serial garbage collector and a small heap, for a fast boot of test suites.
+     */
+    FAST_STARTUP(1, 5, false, List.of("-XX:TieredStopAtLevel=1", "-XX:-UseG1GC", "-XX:+UseSerialGC")),
+
+    /**
+     * ZGC with a fixed heap, for stable tail latencies in benchmarks. Together with
+     * {@link ExtendableKeycloakContainer#withResourceLimits(double, long)}, the heap is also pre-touched at boot.
+     */
+    LOW_LATENCY(5, 5, true, List.of("-XX:-UseG1GC", "-XX:+UseZGC")),
+
+    /**
+     * Parallel garbage collector with a larger heap, for the best throughput in load tests.
+     */
+    THROUGHPUT(5, 25, false, List.of("-XX:-UseG1GC", "-XX:+UseParallelGC"));
+
+    private final int initialRamPercentage;
+    private final int maxRamPercentage;
+    // the initial heap is the maximum heap, also if it is derived from a memory limit, in which case it is pre-touched
+    private final boolean fixedHeap;
+    private final List<String> javaOptions;
+
+    JvmProfile(int initialRamPercentage, int maxRamPercentage, boolean fixedHeap, List<String> javaOptions) {
+        this.initialRamPercentage = initialRamPercentage;
+        this.maxRamPercentage = maxRamPercentage;
+        this.fixedHeap = fixedHeap;
+        this.javaOptions = javaOptions;
+    }
+
+    int getInitialRamPercentage() {
+        return initialRamPercentage;
+    }
+
+    int getMaxRamPercentage() {
+        return maxRamPercentage;
+    }
+
+    boolean isFixedHeap() {
+        return fixedHeap;
+    }
+
+    List<String> getJavaOptions() {
+        return javaOptions;
+    }
+}
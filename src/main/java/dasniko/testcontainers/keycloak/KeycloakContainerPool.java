@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A pool of identically configured Keycloak containers, which are started ahead of time on background threads.
+ * Leased containers are ready to use immediately (or as soon as their startup has finished).
+ * Released containers are recycled: they are stopped and replaced by a freshly started container in the background.
+ *
+ * <pre>{@code
+ * KeycloakContainerPool<KeycloakContainer> pool = new KeycloakContainerPool<>(4,
+ *     () -> new KeycloakContainer("quay.io/keycloak/keycloak:26.4").withRealmImportFile("/test-realm.json"));
+ *
+ * KeycloakContainer keycloak = pool.lease();
+ * try {
+ *     // use the container
+ * } finally {
+ *     pool.release(keycloak);
+ * }
+ * }</pre>
+ *
+ * @author Niko Köbler, https://www.n-k.de, @dasniko
+ */
+public class KeycloakContainerPool<T extends ExtendableKeycloakContainer<T>> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeycloakContainerPool.class);
+    // interrupted startups and pending stops usually finish within a few seconds
+    private static final Duration CLOSE_TIMEOUT = Duration.ofMinutes(1);
+
+    private final Supplier<T> containerFactory;
+    private final BlockingQueue<CompletableFuture<T>> available = new LinkedBlockingQueue<>();
+    private final List<T> leased = new ArrayList<>();
+    // every container created by this pool, until it has been stopped
+    private final Set<T> containers = ConcurrentHashMap.newKeySet();
+    // the futures of all startups, which are not yet completed, also the ones already taken by a lease
+    private final Set<CompletableFuture<T>> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates the pool and immediately starts {@code size} containers in the background.
+     *
+     * @param size             the number of containers in this pool.
+     * @param containerFactory creates a new, not yet started container. Must return a new instance on every call.
+     */
+    public KeycloakContainerPool(int size, Supplier<T> containerFactory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be at least 1");
+        }
+        this.containerFactory = requireNonNull(containerFactory, "containerFactory must not be null");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "keycloak-container-pool-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < size; i++) {
+            refill();
+        }
+    }
+
+    /**
+     * Leases a container from the pool, waiting until one is available and started.
+     *
+     * @return a started container, which has to be given back with {@link #release(ExtendableKeycloakContainer)}.
+     */
+    public T lease() {
+        checkNotClosed();
+        try {
+            return await(available.take());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Keycloak container", e);
+        }
+    }
+
+    /**
+     * Leases a container from the pool, waiting at most {@code timeout} until one is available.
+     *
+     * @return a started container, which has to be given back with {@link #release(ExtendableKeycloakContainer)}.
+     * @throws IllegalStateException if no container became available within the given timeout.
+     */
+    public T lease(Duration timeout) {
+        checkNotClosed();
+        try {
+            CompletableFuture<T> container = available.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (container == null) {
+                throw new IllegalStateException("No Keycloak container available within " + timeout);
+            }
+            return await(container);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Keycloak container", e);
+        }
+    }
+
+    /**
+     * Gives a leased container back to the pool. The container is stopped and replaced by a new one in the background.
+     */
+    public void release(T container) {
+        synchronized (leased) {
+            if (!leased.remove(container)) {
+                throw new IllegalArgumentException("Container has not been leased from this pool");
+            }
+        }
+        if (closed) {
+            stop(container);
+        } else {
+            executor.execute(() -> stop(container));
+            refill();
+        }
+    }
+
+    /**
+     * Stops all containers of this pool, including the ones, that are currently leased or still starting.
+     * Returns when all containers are stopped.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // interrupts the startups in progress, startups not yet begun don't create a container at all
+        executor.shutdownNow();
+        available.clear();
+        // startups discarded by the shutdown never complete their futures, which would block waiting leases forever
+        pending.forEach(future -> future.completeExceptionally(new IllegalStateException("Pool has been closed")));
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Pooled Keycloak containers didn't finish starting within {}, stopping them anyway", CLOSE_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (leased) {
+            leased.clear();
+        }
+        new ArrayList<>(containers).forEach(this::stop);
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Pool has been closed");
+        }
+    }
+
+    private void stop(T container) {
+        container.stop();
+        containers.remove(container);
+    }
+
+    private T await(CompletableFuture<T> future) {
+        try {
+            T container = future.join();
+            synchronized (leased) {
+                leased.add(container);
+            }
+            return container;
+        } catch (CompletionException e) {
+            // the failed container is replaced, so that the pool keeps its size
+            refill();
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    private void refill() {
+        if (closed) {
+            return;
+        }
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            T container = containerFactory.get();
+            containers.add(container);
+            try {
+                container.start();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to start pooled Keycloak container", e);
+                stop(container);
+                throw e;
+            }
+            return container;
+        }, executor);
+        pending.add(future);
+        future.whenComplete((container, error) -> pending.remove(future));
+        available.add(future);
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.keycloak.util.JsonSerialization;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Verifies signature, expiry and issuer of the tokens of one realm locally, with the keys of the realm's JWKS.
+ * The keys are cached by their key id, the JWKS is only fetched again, if a token refers to an unknown key id
+ * (e.g. after a key rotation).
+ */
+class LocalTokenVerifier {
+
+    private static final Map<String, String> EC_CURVES = Map.of("P-256", "secp256r1", "P-384", "secp384r1", "P-521", "secp521r1");
+
+    private final String issuer;
+    private final Supplier<String> jwksSupplier;
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+
+    /**
+     * @param issuer       the expected issuer of the tokens.
+     * @param jwksSupplier fetches the JWKS document of the realm.
+     */
+    LocalTokenVerifier(String issuer, Supplier<String> jwksSupplier) {
+        this.issuer = issuer;
+        this.jwksSupplier = jwksSupplier;
+    }
+
+    /**
+     * Verifies the given token and returns its claims.
+     *
+     * @throws IllegalArgumentException if the token is malformed, its signature is invalid, it has expired
+     *                                  or has been issued by another issuer.
+     */
+    Map<String, Object> verify(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Token is not a signed JWT");
+        }
+        Map<?, ?> header = readJson(decode(parts[0]));
+        String algorithm = (String) header.get("alg");
+        PublicKey key = getKey((String) header.get("kid"));
+
+        byte[] signedContent = (parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII);
+        if (!verifySignature(algorithm, key, signedContent, decode(parts[2]))) {
+            throw new IllegalArgumentException("Invalid token signature");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> claims = (Map<String, Object>) readJson(decode(parts[1]));
+        Object exp = claims.get("exp");
+        if (exp instanceof Number && System.currentTimeMillis() / 1000 >= ((Number) exp).longValue()) {
+            throw new IllegalArgumentException("Token has expired");
+        }
+        if (!issuer.equals(claims.get("iss"))) {
+            throw new IllegalArgumentException("Token has been issued by " + claims.get("iss") + ", expected " + issuer);
+        }
+        return Collections.unmodifiableMap(claims);
+    }
+
+    private PublicKey getKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key == null) {
+            synchronized (this) {
+                key = keys.get(kid);
+                if (key == null) {
+                    keys = parseJwks(jwksSupplier.get());
+                    key = keys.get(kid);
+                }
+            }
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown key id " + kid);
+        }
+        return key;
+    }
+
+    private static Map<String, PublicKey> parseJwks(String jwks) {
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Object jwk : (List<?>) readJson(jwks.getBytes(StandardCharsets.UTF_8)).get("keys")) {
+            Map<?, ?> key = (Map<?, ?>) jwk;
+            if ("enc".equals(key.get("use"))) {
+                continue;
+            }
+            try {
+                if ("RSA".equals(key.get("kty"))) {
+                    keys.put((String) key.get("kid"), KeyFactory.getInstance("RSA").generatePublic(
+                        new RSAPublicKeySpec(toBigInteger(key.get("n")), toBigInteger(key.get("e")))));
+                } else if ("EC".equals(key.get("kty")) && EC_CURVES.containsKey(key.get("crv"))) {
+                    AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                    parameters.init(new ECGenParameterSpec(EC_CURVES.get(key.get("crv"))));
+                    ECPoint point = new ECPoint(toBigInteger(key.get("x")), toBigInteger(key.get("y")));
+                    keys.put((String) key.get("kid"), KeyFactory.getInstance("EC").generatePublic(
+                        new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class))));
+                }
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to read key " + key.get("kid") + " of JWKS", e);
+            }
+        }
+        return keys;
+    }
+
+    private static boolean verifySignature(String algorithm, PublicKey key, byte[] content, byte[] signature) {
+        if (algorithm == null || algorithm.length() != 5) {
+            throw new IllegalArgumentException("Unsupported token signature algorithm " + algorithm);
+        }
+        String bits = algorithm.substring(2);
+        try {
+            Signature verifier;
+            switch (algorithm.substring(0, 2)) {
+                case "RS":
+                    verifier = Signature.getInstance("SHA" + bits + "withRSA");
+                    break;
+                case "PS":
+                    int saltLength = Integer.parseInt(bits) / 8;
+                    verifier = Signature.getInstance("RSASSA-PSS");
+                    verifier.setParameter(new PSSParameterSpec("SHA-" + bits, "MGF1",
+                        new MGF1ParameterSpec("SHA-" + bits), saltLength, 1));
+                    break;
+                case "ES":
+                    verifier = Signature.getInstance("SHA" + bits + "withECDSA");
+                    signature = toDerSignature(signature);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported token signature algorithm " + algorithm);
+            }
+            verifier.initVerify(key);
+            verifier.update(content);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException | NumberFormatException e) {
+            throw new IllegalArgumentException("Failed to verify token signature with algorithm " + algorithm, e);
+        }
+    }
+
+    /**
+     * Converts a JWS ECDSA signature (the concatenated R and S values) into the DER encoding of the JDK.
+     */
+    static byte[] toDerSignature(byte[] signature) {
+        int half = signature.length / 2;
+        byte[] r = new BigInteger(1, Arrays.copyOfRange(signature, 0, half)).toByteArray();
+        byte[] s = new BigInteger(1, Arrays.copyOfRange(signature, half, signature.length)).toByteArray();
+        int sequenceLength = 2 + r.length + 2 + s.length;
+        byte[] lengthBytes = sequenceLength < 128 ? new byte[]{(byte) sequenceLength} : new byte[]{(byte) 0x81, (byte) sequenceLength};
+        byte[] der = new byte[1 + lengthBytes.length + sequenceLength];
+        int pos = 0;
+        der[pos++] = 0x30;
+        for (byte b : lengthBytes) {
+            der[pos++] = b;
+        }
+        der[pos++] = 0x02;
+        der[pos++] = (byte) r.length;
+        System.arraycopy(r, 0, der, pos, r.length);
+        pos += r.length;
+        der[pos++] = 0x02;
+        der[pos++] = (byte) s.length;
+        System.arraycopy(s, 0, der, pos, s.length);
+        return der;
+    }
+
+    private static BigInteger toBigInteger(Object base64Url) {
+        return new BigInteger(1, decode((String) base64Url));
+    }
+
+    private static byte[] decode(String base64Url) {
+        try {
+            return Base64.getUrlDecoder().decode(base64Url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token is not a valid JWT", e);
+        }
+    }
+
+    private static Map<?, ?> readJson(byte[] json) {
+        try {
+            return JsonSerialization.readValue(json, Map.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to read JSON", e);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A token, which is renewed in the background ahead of its expiry, see
+ * {@link ExtendableKeycloakContainer#manageToken(String, String, String, String, String)}.
+ * The token is renewed with its refresh token, a new grant is only requested, if there's no refresh token
+ * or the refresh fails. Reading the current token never blocks, and if a renewal fails, the current token is kept
+ * and the renewal is retried a few seconds later.
+ */
+public class ManagedToken implements AutoCloseable {
+
+    private static final long RETRY_DELAY_MILLIS = Duration.ofSeconds(5).toMillis();
+    private static final long MIN_RENEWAL_DELAY_MILLIS = Duration.ofSeconds(1).toMillis();
+
+    private final Supplier<TokenResponse> grant;
+    private final Function<String, TokenResponse> refresh;
+    private final ScheduledExecutorService scheduler;
+    private final long renewAheadMillis;
+    private final Logger logger;
+    private final Consumer<ManagedToken> onClose;
+
+    private volatile TokenResponse tokenResponse;
+    private ScheduledFuture<?> renewal;
+    private boolean closed;
+
+    /**
+     * Requests the initial token, the renewals are scheduled on the given scheduler.
+     *
+     * @throws IllegalStateException if the initial token request fails.
+     */
+    ManagedToken(Supplier<TokenResponse> grant, Function<String, TokenResponse> refresh,
+                 ScheduledExecutorService scheduler, Duration renewAhead, Logger logger, Consumer<ManagedToken> onClose) {
+        this.grant = grant;
+        this.refresh = refresh;
+        this.scheduler = scheduler;
+        this.renewAheadMillis = renewAhead.toMillis();
+        this.logger = logger;
+        this.onClose = onClose;
+        this.tokenResponse = grant.get();
+        scheduleRenewal(renewalDelay(tokenResponse));
+    }
+
+    /**
+     * Returns the current access token, without blocking.
+     */
+    public String getAccessToken() {
+        return tokenResponse.getAccessToken();
+    }
+
+    /**
+     * Returns the current token response, without blocking.
+     */
+    public TokenResponse getTokenResponse() {
+        return tokenResponse;
+    }
+
+    /**
+     * Stops the renewal of the token.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (renewal != null) {
+                renewal.cancel(false);
+            }
+        }
+        onClose.accept(this);
+    }
+
+    private void renew() {
+        TokenResponse current = tokenResponse;
+        TokenResponse renewed = null;
+        if (current.getRefreshToken() != null) {
+            try {
+                renewed = refresh.apply(current.getRefreshToken());
+            } catch (RuntimeException e) {
+                // e.g. the refresh token has expired or the session is gone, fall back to a new grant
+                logger.debug("Failed to refresh managed token, requesting a new one", e);
+            }
+        }
+        if (renewed == null) {
+            try {
+                renewed = grant.get();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to renew managed token, retrying in {} ms", RETRY_DELAY_MILLIS, e);
+                scheduleRenewal(RETRY_DELAY_MILLIS);
+                return;
+            }
+        }
+        tokenResponse = renewed;
+        scheduleRenewal(renewalDelay(renewed));
+    }
+
+    private synchronized void scheduleRenewal(long delayMillis) {
+        if (!closed) {
+            renewal = scheduler.schedule(this::renew, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private long renewalDelay(TokenResponse token) {
+        long lifespanMillis = Duration.ofSeconds(token.getExpiresIn()).toMillis();
+        long delayMillis = lifespanMillis - renewAheadMillis;
+        if (delayMillis <= 0) {
+            // short-lived tokens are renewed halfway through their lifespan
+            delayMillis = lifespanMillis / 2;
+        }
+        return Math.max(delayMillis, MIN_RENEWAL_DELAY_MILLIS);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The results of minting tokens for many users, keyed by username.
+ *
+ * @see ExtendableKeycloakContainer#mintTokens(String, String, String, java.util.Collection, int)
+ */
+public class MintedTokens {
+
+    private final Map<String, TokenResponse> tokens;
+    private final Map<String, Throwable> errors;
+    private final Map<String, Duration> latencies;
+    private final Duration total;
+
+    MintedTokens(Map<String, TokenResponse> tokens, Map<String, Throwable> errors, Map<String, Duration> latencies, Duration total) {
+        this.tokens = Collections.unmodifiableMap(new LinkedHashMap<>(tokens));
+        this.errors = Collections.unmodifiableMap(new LinkedHashMap<>(errors));
+        this.latencies = Collections.unmodifiableMap(new LinkedHashMap<>(latencies));
+        this.total = total;
+    }
+
+    /**
+     * The token responses of all successful requests.
+     */
+    public Map<String, TokenResponse> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * The errors of all failed requests.
+     */
+    public Map<String, Throwable> getErrors() {
+        return errors;
+    }
+
+    public int getErrorCount() {
+        return errors.size();
+    }
+
+    /**
+     * The latency of every request, successful or not.
+     */
+    public Map<String, Duration> getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * The time it took to mint all tokens.
+     */
+    public Duration getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MintedTokens{tokens=%d, errors=%d, total=%dms}", tokens.size(), errors.size(), total.toMillis());
+    }
+}
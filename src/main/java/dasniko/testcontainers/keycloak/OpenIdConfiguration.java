@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The OpenID Connect discovery document of a realm, parsed once from {@code /.well-known/openid-configuration}.
+ * Endpoints, which are not part of the document, are {@code null}.
+ *
+ * @see ExtendableKeycloakContainer#getOpenIdConfiguration(String)
+ */
+public class OpenIdConfiguration {
+
+    private final Map<String, String> fields;
+
+    OpenIdConfiguration(Map<String, String> fields) {
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    public String getIssuer() {
+        return fields.get("issuer");
+    }
+
+    public String getAuthorizationEndpoint() {
+        return fields.get("authorization_endpoint");
+    }
+
+    public String getTokenEndpoint() {
+        return fields.get("token_endpoint");
+    }
+
+    public String getIntrospectionEndpoint() {
+        return fields.get("introspection_endpoint");
+    }
+
+    public String getJwksUri() {
+        return fields.get("jwks_uri");
+    }
+
+    public String getUserInfoEndpoint() {
+        return fields.get("userinfo_endpoint");
+    }
+
+    public String getEndSessionEndpoint() {
+        return fields.get("end_session_endpoint");
+    }
+
+    /**
+     * Returns any other top-level string, number or boolean value of the discovery document, e.g.
+     * {@code "revocation_endpoint"}, or {@code null}, if there's no such value.
+     */
+    public String getValue(String name) {
+        return fields.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "OpenIdConfiguration{issuer=" + getIssuer() + "}";
+    }
+}
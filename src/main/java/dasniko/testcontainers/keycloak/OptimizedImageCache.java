@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a Keycloak image with {@code kc.sh build} already applied and keeps it as a local image.
+ * The image tag is a hash of all build inputs (base image id, build options and provider files),
+ * so an existing image is reused as long as none of these inputs change.
+ */
+class OptimizedImageCache {
+
+    static final String IMAGE_REPOSITORY = "localhost/testcontainers-keycloak-optimized";
+
+    private static final String KEYCLOAK_BUILD_COMMAND = "/opt/keycloak/bin/kc.sh build";
+
+    private final DockerClient dockerClient;
+    private final Logger logger;
+
+    OptimizedImageCache(DockerClient dockerClient, Logger logger) {
+        this.dockerClient = dockerClient;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the name of an optimized image for the given inputs, building it first, if it does not yet exist.
+     *
+     * @param baseImageName the resolved (and already pulled) name of the base Keycloak image.
+     * @param buildOptions  the Keycloak build time options as environment variables.
+     * @param providerFiles the provider files on the host, keyed by their target path in the image.
+     */
+    Future<String> resolve(String baseImageName, Map<String, String> buildOptions, Map<String, File> providerFiles) {
+        ContentHash hash = ContentHash.create()
+            .add(baseImageName)
+            .add(dockerClient.inspectImageCmd(baseImageName).exec().getId())
+            .add(new TreeMap<>(buildOptions));
+        // archives are hashed by their entries, so re-packaged jars with unchanged content still match
+        new TreeMap<>(providerFiles).forEach((path, file) -> {
+            hash.add(path);
+            if (file.getName().endsWith(".jar")) {
+                hash.addArchive(file.toPath());
+            } else {
+                hash.addFile(file.toPath());
+            }
+        });
+        String imageName = IMAGE_REPOSITORY + ":" + hash.toHex().substring(0, 16);
+
+        if (imageExists(imageName)) {
+            logger.debug("Reusing optimized Keycloak image {}", imageName);
+            return CompletableFuture.completedFuture(imageName);
+        }
+
+        logger.info("Building optimized Keycloak image {} from {}", imageName, baseImageName);
+        ImageFromDockerfile image = new ImageFromDockerfile(imageName, false);
+        Map<String, String> contextFiles = new TreeMap<>();
+        int index = 0;
+        for (Map.Entry<String, File> entry : new TreeMap<>(providerFiles).entrySet()) {
+            String contextPath = "providers/" + index++ + "_" + entry.getValue().getName();
+            image.withFileFromFile(contextPath, entry.getValue(), 0644);
+            contextFiles.put(contextPath, entry.getKey());
+        }
+        return image.withDockerfileFromBuilder(builder -> {
+            builder.from(baseImageName);
+            contextFiles.forEach(builder::copy);
+            new TreeMap<>(buildOptions).forEach(builder::env);
+            builder.run(KEYCLOAK_BUILD_COMMAND);
+        });
+    }
+
+    private boolean imageExists(String imageName) {
+        try {
+            dockerClient.inspectImageCmd(imageName).exec();
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
+}
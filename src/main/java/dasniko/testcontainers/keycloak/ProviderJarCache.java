@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packages provider class folders into byte-reproducible jar files and keeps them in a content-addressed
+ * on-disk cache, keyed by a hash of the class tree.
+ * Unchanged class folders are not packaged again, and the resulting jar files are byte-identical across runs,
+ * which keeps the reuse hash of Testcontainers stable.
+ * Multiple class folders are packaged in parallel on a bounded fork-join pool.
+ */
+class ProviderJarCache {
+
+    static final Path CACHE_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "testcontainers-keycloak", "providers");
+
+    private static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    // same fixed timestamp as used by Maven for reproducible builds, independent of the local time zone
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+
+    private ProviderJarCache() {
+    }
+
+    /**
+     * Returns the cached jar files for all given classes folders, packaging them in parallel, where necessary.
+     *
+     * @param classesLocations the classes folders, keyed by an arbitrary identifier.
+     * @return the jar files, keyed by the same identifiers, in the same order.
+     */
+    static <K> Map<K, Path> getOrCreateAll(Map<K, Path> classesLocations, Logger logger) throws IOException {
+        long start = System.nanoTime();
+        Map<K, Path> jars = new LinkedHashMap<>();
+        if (classesLocations.size() == 1) {
+            for (Map.Entry<K, Path> entry : classesLocations.entrySet()) {
+                jars.put(entry.getKey(), getOrCreate(entry.getValue(), logger));
+            }
+            return jars;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(classesLocations.size(), MAX_PARALLELISM)));
+        try {
+            List<Callable<Path>> tasks = new ArrayList<>();
+            classesLocations.values().forEach(classesLocation -> tasks.add(() -> getOrCreate(classesLocation, logger)));
+            List<Future<Path>> futures = pool.invokeAll(tasks);
+            int i = 0;
+            for (K key : classesLocations.keySet()) {
+                jars.put(key, futures.get(i++).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Packaging of provider classes was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Failed to package provider classes", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        logger.debug("Prepared {} provider jars in {} ms", jars.size(), millisSince(start));
+        return jars;
+    }
+
+    /**
+     * Returns the cached jar file for the given classes folder, packaging it first, if there is none yet.
+     */
+    static Path getOrCreate(Path classesLocation, Logger logger) throws IOException {
+        long start = System.nanoTime();
+        Path jar = CACHE_DIR.resolve(ContentHash.create().addTree(classesLocation).toHex() + ".jar");
+        long hashMillis = millisSince(start);
+        if (Files.exists(jar)) {
+            logger.debug("Provider classes {}: hashed in {} ms, taken from cache {}", classesLocation, hashMillis, jar);
+            return jar;
+        }
+
+        Files.createDirectories(CACHE_DIR);
+        Path tempFile = Files.createTempFile(CACHE_DIR, "keycloak", ".jar.tmp");
+        try {
+            writeJar(classesLocation, tempFile);
+            tempFile.toFile().setReadable(true, false);
+            // an atomic move keeps concurrent packaging of the same classes folder safe
+            Files.move(tempFile, jar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        logger.debug("Provider classes {}: hashed in {} ms, packaged in {} ms to {}",
+            classesLocation, hashMillis, millisSince(start) - hashMillis, jar);
+        return jar;
+    }
+
+    private static void writeJar(Path classesLocation, Path target) throws IOException {
+        List<Path> files = ContentHash.listFiles(classesLocation);
+
+        Set<String> directories = new TreeSet<>();
+        for (Path file : files) {
+            String name = ContentHash.relativeName(classesLocation, file);
+            for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+                directories.add(name.substring(0, i + 1));
+            }
+        }
+
+        try (OutputStream out = Files.newOutputStream(target);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String directory : directories) {
+                zip.putNextEntry(newEntry(directory));
+                zip.closeEntry();
+            }
+            for (Path file : files) {
+                zip.putNextEntry(newEntry(ContentHash.relativeName(classesLocation, file)));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static ZipEntry newEntry(String name) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTimeLocal(ENTRY_TIME);
+        return entry;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.slf4j.Logger;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.images.builder.Transferable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Checksum;
+
+/**
+ * A snapshot of the Keycloak data directory, taken right after the realm import, stored as tar file on disk.
+ * The snapshot file is named by a hash of all inputs of the import (image, configuration and import files),
+ * so it is restored as long as none of these inputs change.
+ */
+class RealmImportSnapshot implements Transferable {
+
+    static final Path SNAPSHOT_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "testcontainers-keycloak", "snapshots");
+
+    private final Path snapshotFile;
+
+    RealmImportSnapshot(String hash) {
+        this.snapshotFile = SNAPSHOT_DIR.resolve(hash + ".tar");
+    }
+
+    boolean exists() {
+        return Files.exists(snapshotFile);
+    }
+
+    Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Runs the given one-shot import container to its end and stores its data directory as snapshot.
+     * The import container must exit after the import, so that the database has been shut down properly.
+     *
+     * @param importContainer the container, running the Keycloak import command.
+     * @param dataDirectory   the data directory in the container, which is taken into the snapshot.
+     */
+    void create(GenericContainer<?> importContainer, String dataDirectory, Logger logger) {
+        logger.info("Creating realm import snapshot {}", snapshotFile);
+        importContainer.start();
+        try (InputStream tar = importContainer.getDockerClient()
+            .copyArchiveFromContainerCmd(importContainer.getContainerId(), dataDirectory).exec()) {
+            Files.createDirectories(SNAPSHOT_DIR);
+            Path tempFile = Files.createTempFile(SNAPSHOT_DIR, "snapshot", ".tar.tmp");
+            try {
+                Files.copy(tar, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create realm import snapshot " + snapshotFile, e);
+        } finally {
+            importContainer.stop();
+        }
+    }
+
+    /**
+     * Writes all entries of the snapshot below the given destination (the parent of the data directory),
+     * keeping the file owners and modes of the original data directory.
+     */
+    @Override
+    public void transferTo(TarArchiveOutputStream tarArchiveOutputStream, String destination) {
+        String target = destination.endsWith("/") ? destination : destination + "/";
+        try (TarArchiveInputStream in = new TarArchiveInputStream(Files.newInputStream(snapshotFile))) {
+            TarArchiveEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entry.setName(target + entry.getName());
+                tarArchiveOutputStream.putArchiveEntry(entry);
+                if (entry.isFile()) {
+                    in.transferTo(tarArchiveOutputStream);
+                }
+                tarArchiveOutputStream.closeArchiveEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore realm import snapshot " + snapshotFile, e);
+        }
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return Files.size(snapshotFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "realm import snapshot " + snapshotFile;
+    }
+
+    @Override
+    public void updateChecksum(Checksum checksum) {
+        // the file name is already a hash of the snapshot's inputs
+        byte[] name = snapshotFile.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        checksum.update(name, 0, name.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof RealmImportSnapshot && snapshotFile.equals(((RealmImportSnapshot) o).snapshotFile);
+    }
+
+    @Override
+    public int hashCode() {
+        return snapshotFile.hashCode();
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import lombok.Getter;
+import org.keycloak.admin.client.Keycloak;
+
+/**
+ * A uniquely named realm, cloned from a template realm, which is deleted again when the lease is closed.
+ *
+ * @see ExtendableKeycloakContainer#leaseRealm(String)
+ */
+public class RealmLease implements AutoCloseable {
+
+    /**
+     * The unique name of the leased realm.
+     */
+    @Getter
+    private final String realmName;
+    // owned by the container, which closes it when it stops
+    private final Keycloak adminClient;
+    private boolean closed = false;
+
+    RealmLease(String realmName, Keycloak adminClient) {
+        this.realmName = realmName;
+        this.adminClient = adminClient;
+    }
+
+    /**
+     * Deletes the leased realm.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            adminClient.realm(realmName).remove();
+            closed = true;
+        }
+    }
+
+}
@@ -19,7 +19,6 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -27,32 +26,36 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Minimal HTTP client helper, modelled after Keycloak's {@code org.keycloak.http.simple.SimpleHttp}.
  * Uses only {@link java.net.http.HttpClient} — no additional dependencies.
+ * The client is passed in, so that its connections are reused across requests.
  */
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 class SimpleHttp {
 
+    private final HttpClient httpClient;
     private final String method;
     private final String url;
-    private SSLContext sslContext;
+    private Duration timeout;
     private final Map<String, String> formParams = new LinkedHashMap<>();
 
-    static SimpleHttp doGet(String url) {
-        return new SimpleHttp("GET", url);
+    static SimpleHttp doGet(HttpClient httpClient, String url) {
+        return new SimpleHttp(httpClient, "GET", url);
     }
 
-    static SimpleHttp doPost(String url) {
-        return new SimpleHttp("POST", url);
+    static SimpleHttp doPost(HttpClient httpClient, String url) {
+        return new SimpleHttp(httpClient, "POST", url);
     }
 
-    SimpleHttp sslContext(SSLContext sslContext) {
-        this.sslContext = sslContext;
+    SimpleHttp timeout(Duration timeout) {
+        this.timeout = timeout;
         return this;
     }
 
@@ -62,12 +65,29 @@ class SimpleHttp {
     }
 
     Response asResponse() throws IOException {
-        HttpClient.Builder clientBuilder = HttpClient.newBuilder();
-        if (sslContext != null) {
-            clientBuilder.sslContext(sslContext);
+        try {
+            HttpResponse<String> response = httpClient.send(buildRequest(), HttpResponse.BodyHandlers.ofString());
+            return new Response(response.statusCode(), response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("HTTP request was interrupted", e);
         }
+    }
+
+    /**
+     * Sends the request asynchronously, without blocking the calling thread.
+     * The returned future completes exceptionally with an {@link IOException}, if the request fails.
+     */
+    CompletableFuture<Response> asResponseAsync() {
+        return httpClient.sendAsync(buildRequest(), HttpResponse.BodyHandlers.ofString())
+            .thenApply(response -> new Response(response.statusCode(), response.body()));
+    }
 
+    private HttpRequest buildRequest() {
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder().uri(URI.create(url));
+        if (timeout != null) {
+            requestBuilder.timeout(timeout);
+        }
         if (formParams.isEmpty()) {
             requestBuilder.method(method, HttpRequest.BodyPublishers.noBody());
         } else {
@@ -79,14 +99,7 @@ class SimpleHttp {
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .method(method, HttpRequest.BodyPublishers.ofString(encodedBody));
         }
-
-        try {
-            HttpResponse<String> response = clientBuilder.build().send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
-            return new Response(response.statusCode(), response.body());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("HTTP request was interrupted", e);
-        }
+        return requestBuilder.build();
     }
 
     @Getter
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * The timings of the phases of the last startup of a Keycloak container.
+ * Phases, which haven't been observed during the startup (e.g. no database migration, because of a restored
+ * realm import snapshot), are empty.
+ *
+ * @see ExtendableKeycloakContainer#getStartupReport()
+ */
+public class StartupReport {
+
+    private final Duration configuration;
+    private final Duration imagePull;
+    private final Duration containerCreate;
+    private final Duration augmentation;
+    private final Duration databaseMigration;
+    private final Map<String, Duration> realmImports;
+    private final Duration listenerReadiness;
+    private final Duration healthReadiness;
+    private final Duration total;
+    private final Duration reportedByKeycloak;
+
+    StartupReport(Duration configuration, Duration imagePull, Duration containerCreate, Duration augmentation,
+                  Duration databaseMigration, Map<String, Duration> realmImports, Duration listenerReadiness,
+                  Duration healthReadiness, Duration total, Duration reportedByKeycloak) {
+        this.configuration = configuration;
+        this.imagePull = imagePull;
+        this.containerCreate = containerCreate;
+        this.augmentation = augmentation;
+        this.databaseMigration = databaseMigration;
+        this.realmImports = Collections.unmodifiableMap(new LinkedHashMap<>(realmImports));
+        this.listenerReadiness = listenerReadiness;
+        this.healthReadiness = healthReadiness;
+        this.total = total;
+        this.reportedByKeycloak = reportedByKeycloak;
+    }
+
+    /**
+     * Time for the configuration of the container, including packaging of providers and creating snapshots.
+     */
+    public Optional<Duration> getConfiguration() {
+        return Optional.ofNullable(configuration);
+    }
+
+    /**
+     * Time for resolving the image, including pulling or building it.
+     */
+    public Optional<Duration> getImagePull() {
+        return Optional.ofNullable(imagePull);
+    }
+
+    /**
+     * Time for creating the container, including copying all files into it.
+     */
+    public Optional<Duration> getContainerCreate() {
+        return Optional.ofNullable(containerCreate);
+    }
+
+    /**
+     * Time of the Quarkus augmentation (the implicit {@code build}), if it has been necessary.
+     */
+    public Optional<Duration> getAugmentation() {
+        return Optional.ofNullable(augmentation);
+    }
+
+    /**
+     * Time of the initialization or update of the database schema.
+     */
+    public Optional<Duration> getDatabaseMigration() {
+        return Optional.ofNullable(databaseMigration);
+    }
+
+    /**
+     * Import times, keyed by the names of the imported realms, in the order of their import.
+     */
+    public Map<String, Duration> getRealmImports() {
+        return realmImports;
+    }
+
+    /**
+     * Time from the start of the container, until the HTTP and management listeners are up.
+     */
+    public Optional<Duration> getListenerReadiness() {
+        return Optional.ofNullable(listenerReadiness);
+    }
+
+    /**
+     * Time from the listeners being up, until the wait strategy considered the container to be ready.
+     */
+    public Optional<Duration> getHealthReadiness() {
+        return Optional.ofNullable(healthReadiness);
+    }
+
+    /**
+     * Overall time of the startup, from the configuration until the container is ready.
+     */
+    public Duration getTotal() {
+        return total;
+    }
+
+    /**
+     * The startup time, as reported by Keycloak itself in its log.
+     */
+    public Optional<Duration> getReportedByKeycloak() {
+        return Optional.ofNullable(reportedByKeycloak);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "StartupReport[", "]");
+        append(joiner, "configuration", configuration);
+        append(joiner, "imagePull", imagePull);
+        append(joiner, "containerCreate", containerCreate);
+        append(joiner, "augmentation", augmentation);
+        append(joiner, "databaseMigration", databaseMigration);
+        realmImports.forEach((realm, duration) -> append(joiner, "realmImport(" + realm + ")", duration));
+        append(joiner, "listenerReadiness", listenerReadiness);
+        append(joiner, "healthReadiness", healthReadiness);
+        append(joiner, "total", total);
+        append(joiner, "reportedByKeycloak", reportedByKeycloak);
+        return joiner.toString();
+    }
+
+    private static void append(StringJoiner joiner, String phase, Duration duration) {
+        if (duration != null) {
+            joiner.add(phase + "=" + duration.toMillis() + "ms");
+        }
+    }
+
+}
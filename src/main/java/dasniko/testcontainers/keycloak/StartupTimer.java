@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records the points in time of the container lifecycle and of the boot phases, which Keycloak reports in its log,
+ * and turns them into a {@link StartupReport}, once the container is ready.
+ * Log lines are timed by their arrival, so the timings are based on the clock of the test JVM only.
+ */
+class StartupTimer implements Consumer<OutputFrame> {
+
+    private static final Pattern AUGMENTATION_START = Pattern.compile("Updating the configuration and installing your custom providers");
+    private static final Pattern AUGMENTATION_END = Pattern.compile("Server configuration updated and persisted");
+    private static final Pattern DATABASE_MIGRATION_START = Pattern.compile("Initializing database schema|Updating database\\. Using changelog");
+    private static final Pattern IMPORT_START = Pattern.compile("KC-SERVICES0030|Importing from directory");
+    private static final Pattern REALM_IMPORTED = Pattern.compile("Realm '([^']+)' imported");
+    private static final Pattern LISTENING = Pattern.compile("Listening on: ");
+    private static final Pattern STARTED = Pattern.compile("started in ([0-9]+(?:\\.[0-9]+)?)s");
+
+    // System.nanoTime() may be negative, so it can't be used as marker for an unrecorded point in time
+    private static final long NOT_RECORDED = Long.MIN_VALUE;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private long configureStart = NOT_RECORDED;
+    private long configureEnd = NOT_RECORDED;
+    private long createStart = NOT_RECORDED;
+    private long createEnd = NOT_RECORDED;
+    private long augmentationStart = NOT_RECORDED;
+    private long augmentationEnd = NOT_RECORDED;
+    private long databaseMigrationStart = NOT_RECORDED;
+    private long databaseMigrationEnd = NOT_RECORDED;
+    private long lastImportEvent = NOT_RECORDED;
+    private final Map<String, Duration> realmImports = new LinkedHashMap<>();
+    private long listening = NOT_RECORDED;
+    private Duration reportedStartup;
+    private boolean running = false;
+
+    synchronized void configuring() {
+        configureStart = System.nanoTime();
+        configureEnd = createStart = createEnd = NOT_RECORDED;
+        augmentationStart = augmentationEnd = databaseMigrationStart = databaseMigrationEnd = NOT_RECORDED;
+        lastImportEvent = listening = NOT_RECORDED;
+        realmImports.clear();
+        reportedStartup = null;
+        buffer.setLength(0);
+        running = true;
+    }
+
+    synchronized void configured() {
+        configureEnd = System.nanoTime();
+    }
+
+    synchronized void containerCreating() {
+        createStart = System.nanoTime();
+    }
+
+    synchronized void containerCreated() {
+        createEnd = System.nanoTime();
+    }
+
+    /**
+     * Stops the recording and returns the report of the recorded phases.
+     */
+    synchronized StartupReport ready() {
+        long ready = System.nanoTime();
+        running = false;
+        long bootEnd = listening != NOT_RECORDED ? listening : ready;
+        return new StartupReport(
+            between(configureStart, configureEnd),
+            between(configureEnd, createStart),
+            between(createStart, createEnd),
+            between(augmentationStart, augmentationEnd),
+            between(databaseMigrationStart, databaseMigrationEnd != NOT_RECORDED ? databaseMigrationEnd : bootEnd),
+            realmImports,
+            between(createEnd, listening),
+            between(listening, ready),
+            between(configureStart, ready),
+            reportedStartup);
+    }
+
+    @Override
+    public synchronized void accept(OutputFrame frame) {
+        if (!running || frame.getBytes() == null) {
+            return;
+        }
+        buffer.append(frame.getUtf8String());
+        int end;
+        while ((end = buffer.indexOf("\n")) >= 0) {
+            onLine(buffer.substring(0, end), System.nanoTime());
+            buffer.delete(0, end + 1);
+        }
+    }
+
+    private void onLine(String line, long now) {
+        if (AUGMENTATION_START.matcher(line).find()) {
+            augmentationStart = now;
+            return;
+        }
+        if (AUGMENTATION_END.matcher(line).find()) {
+            augmentationEnd = now;
+            return;
+        }
+        if (DATABASE_MIGRATION_START.matcher(line).find()) {
+            databaseMigrationStart = now;
+            return;
+        }
+        // the database migration ends with the next log line of Keycloak itself, not of Liquibase
+        if (databaseMigrationStart != NOT_RECORDED && databaseMigrationEnd == NOT_RECORDED && !line.contains("liquibase")) {
+            databaseMigrationEnd = now;
+        }
+        if (IMPORT_START.matcher(line).find()) {
+            lastImportEvent = now;
+            return;
+        }
+        Matcher realmImported = REALM_IMPORTED.matcher(line);
+        if (realmImported.find()) {
+            if (lastImportEvent != NOT_RECORDED) {
+                realmImports.put(realmImported.group(1), Duration.ofNanos(now - lastImportEvent));
+            }
+            lastImportEvent = now;
+            return;
+        }
+        if (LISTENING.matcher(line).find()) {
+            listening = now;
+        }
+        Matcher started = STARTED.matcher(line);
+        if (started.find()) {
+            reportedStartup = Duration.ofMillis(Math.round(Double.parseDouble(started.group(1)) * 1000));
+        }
+    }
+
+    private static Duration between(long start, long end) {
+        return start != NOT_RECORDED && end != NOT_RECORDED && end >= start ? Duration.ofNanos(end - start) : null;
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches token responses until they expire (minus a skew). Expired tokens are refreshed with their refresh token,
+ * a new grant is only requested, if there's no refresh token or the refresh fails.
+ * Concurrent requests for the same key wait for one single token request.
+ */
+class TokenCache {
+
+    private final long expirySkewNanos;
+    private final Map<List<String>, Entry> entries = new ConcurrentHashMap<>();
+
+    TokenCache(Duration expirySkew) {
+        this.expirySkewNanos = expirySkew.toNanos();
+    }
+
+    /**
+     * Returns the cached token response for the given key, or a new one, if it is about to expire.
+     *
+     * @param key     the key, made of realm, client and subject (and their credentials).
+     * @param grant   requests a new token response.
+     * @param refresh requests a new token response with the given refresh token.
+     */
+    TokenResponse get(List<String> key, Supplier<TokenResponse> grant, Function<String, TokenResponse> refresh) {
+        Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        synchronized (entry) {
+            long now = System.nanoTime();
+            if (entry.token != null && now < entry.expiresAt) {
+                return entry.token;
+            }
+            TokenResponse token = null;
+            if (entry.token != null && entry.token.getRefreshToken() != null) {
+                try {
+                    token = refresh.apply(entry.token.getRefreshToken());
+                } catch (IllegalStateException e) {
+                    // e.g. the refresh token has expired or the session is gone, fall back to a new grant
+                }
+            }
+            if (token == null) {
+                token = grant.get();
+            }
+            entry.token = token;
+            entry.expiresAt = now + Duration.ofSeconds(token.getExpiresIn()).toNanos() - expirySkewNanos;
+            return token;
+        }
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        private TokenResponse token;
+        private long expiresAt;
+    }
+
+}
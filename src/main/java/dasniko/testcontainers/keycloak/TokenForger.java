@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Niko Köbler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dasniko.testcontainers.keycloak;
+
+import org.keycloak.util.JsonSerialization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signs tokens in-process with an RSA key, which is injected into the realms as additional key provider,
+ * so that Keycloak publishes its public key in the realm's JWKS and accepts the tokens as its own.
+ * Keycloak only creates the default key providers of a realm on import, if the realm has no key providers at all,
+ * so these are injected as well in that case, with a higher priority than the forging key.
+ */
+class TokenForger {
+
+    static final String KEY_PROVIDER_NAME = "testcontainers-token-forging";
+    static final long DEFAULT_LIFESPAN_SECONDS = 300;
+
+    private static final String KEY_PROVIDER_TYPE = "org.keycloak.keys.KeyProvider";
+    // the key providers Keycloak creates for a new realm, see org.keycloak.models.utils.DefaultKeyProviders
+    private static final Map<String, Map<String, List<String>>> DEFAULT_KEY_PROVIDERS = Map.of(
+        "rsa-generated", Map.of("priority", List.of("100")),
+        "rsa-enc-generated", Map.of("priority", List.of("100"), "algorithm", List.of("RSA-OAEP")),
+        "hmac-generated", Map.of("priority", List.of("100"), "algorithm", List.of("HS512")),
+        "aes-generated", Map.of("priority", List.of("100"))
+    );
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static KeyPair defaultKeyPair;
+
+    private final KeyPair keyPair;
+    private final ThreadLocal<Signature> signatures;
+
+    TokenForger(KeyPair keyPair) {
+        if (!(keyPair.getPublic() instanceof RSAPublicKey)) {
+            throw new IllegalArgumentException("Only RSA keys are supported for token forging");
+        }
+        this.keyPair = keyPair;
+        this.signatures = ThreadLocal.withInitial(() -> {
+            try {
+                Signature signature = Signature.getInstance("SHA256withRSA");
+                signature.initSign(keyPair.getPrivate());
+                return signature;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize token signature", e);
+            }
+        });
+    }
+
+    /**
+     * Returns the key pair, which is generated once per JVM.
+     */
+    static synchronized KeyPair defaultKeyPair() {
+        if (defaultKeyPair == null) {
+            try {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                defaultKeyPair = generator.generateKeyPair();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to generate token forging key", e);
+            }
+        }
+        return defaultKeyPair;
+    }
+
+    /**
+     * Adds the key provider component with the forging key to the given realm representation,
+     * together with the default key providers, if the realm has no key providers yet.
+     */
+    @SuppressWarnings("unchecked")
+    void addKeyProvider(Map<String, Object> realm) {
+        Map<String, Object> components = (Map<String, Object>) realm.computeIfAbsent("components", k -> new LinkedHashMap<>());
+        List<Object> keyProviders = (List<Object>) components.computeIfAbsent(KEY_PROVIDER_TYPE, k -> new ArrayList<>());
+        if (keyProviders.isEmpty()) {
+            // otherwise the forging key would be the only key of the realm, and Keycloak would sign its tokens with it
+            DEFAULT_KEY_PROVIDERS.forEach((providerId, config) -> keyProviders.add(keyProvider(providerId, providerId, config)));
+        }
+
+        Map<String, List<String>> config = new LinkedHashMap<>();
+        config.put("privateKey", List.of(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded())));
+        config.put("algorithm", List.of("RS256"));
+        // lower than the priority of Keycloak's own keys, so they keep signing its tokens
+        config.put("priority", List.of("0"));
+        config.put("active", List.of("true"));
+        config.put("enabled", List.of("true"));
+        keyProviders.add(keyProvider(KEY_PROVIDER_NAME, "rsa", config));
+    }
+
+    private static Map<String, Object> keyProvider(String name, String providerId, Map<String, List<String>> config) {
+        Map<String, Object> keyProvider = new LinkedHashMap<>();
+        keyProvider.put("name", name);
+        keyProvider.put("providerId", providerId);
+        keyProvider.put("subComponents", Map.of());
+        keyProvider.put("config", config);
+        return keyProvider;
+    }
+
+    /**
+     * Returns the key id, under which the forging key is published in the given JWKS.
+     *
+     * @throws IllegalStateException if the forging key is not part of the JWKS.
+     */
+    String findKeyId(String jwks) {
+        BigInteger modulus = ((RSAPublicKey) keyPair.getPublic()).getModulus();
+        try {
+            for (Object jwk : (List<?>) JsonSerialization.readValue(jwks, Map.class).get("keys")) {
+                Map<?, ?> key = (Map<?, ?>) jwk;
+                if ("RSA".equals(key.get("kty")) && "sig".equals(key.get("use"))
+                    && modulus.equals(new BigInteger(1, Base64.getUrlDecoder().decode((String) key.get("n"))))) {
+                    return (String) key.get("kid");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read JWKS", e);
+        }
+        throw new IllegalStateException("The token forging key is not part of the realm's keys, only imported realms are supported");
+    }
+
+    /**
+     * Encodes the JWS header for the given key id, which is the same for all tokens of a realm.
+     */
+    static String encodeHeader(String kid) {
+        return encode(Map.of("alg", "RS256", "typ", "JWT", "kid", kid));
+    }
+
+    /**
+     * Signs a token with the given encoded header and claims.
+     */
+    String forge(String encodedHeader, String issuer, Map<String, Object> claims) {
+        long now = System.currentTimeMillis() / 1000;
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("iss", issuer);
+        payload.put("iat", now);
+        payload.put("exp", now + DEFAULT_LIFESPAN_SECONDS);
+        payload.put("jti", UUID.randomUUID().toString());
+        payload.put("typ", "Bearer");
+        payload.putAll(claims);
+
+        String content = encodedHeader + "." + encode(payload);
+        try {
+            Signature signature = signatures.get();
+            signature.update(content.getBytes(StandardCharsets.US_ASCII));
+            return content + "." + BASE64_URL.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+    }
+
+    private static String encode(Map<String, ?> json) {
+        try {
+            return BASE64_URL.encodeToString(JsonSerialization.writeValueAsBytes(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write token", e);
+        }
+    }
+
+}
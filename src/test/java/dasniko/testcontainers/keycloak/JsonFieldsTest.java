@@ -0,0 +1,42 @@
+package dasniko.testcontainers.keycloak;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonFieldsTest {
+
+    @Test
+    public void shouldReadTopLevelScalarFields() {
+        Map<String, String> fields = JsonFields.parse("{\"access_token\":\"abc\", \"expires_in\" : 300, \"not-before-policy\":0, \"enabled\":true}");
+        assertThat(fields.get("access_token"), equalTo("abc"));
+        assertThat(fields.get("expires_in"), equalTo("300"));
+        assertThat(fields.get("enabled"), equalTo("true"));
+    }
+
+    @Test
+    public void shouldUnescapeStrings() {
+        Map<String, String> fields = JsonFields.parse("{\"issuer\":\"http:\\/\\/localhost\\/realms\\/a\\\"b\\u0041\"}");
+        assertThat(fields.get("issuer"), equalTo("http://localhost/realms/a\"bA"));
+    }
+
+    @Test
+    public void shouldSkipNullsAndNestedValues() {
+        Map<String, String> fields = JsonFields.parse("{\"id_token\":null,\"grant_types_supported\":[\"a\",{\"b\":\"]}\"}],\"mtls\":{},\"jwks_uri\":\"uri\"}");
+        assertThat(fields, not(hasKey("id_token")));
+        assertThat(fields, not(hasKey("grant_types_supported")));
+        assertThat(fields.get("jwks_uri"), equalTo("uri"));
+    }
+
+    @Test
+    public void shouldRejectInvalidJson() {
+        assertThrows(IllegalStateException.class, () -> JsonFields.parse("<html></html>"));
+        assertThrows(IllegalStateException.class, () -> JsonFields.parse("{\"access_token\":\"abc"));
+    }
+}
@@ -78,6 +78,14 @@ public class KeycloakContainerEndpointHelpersTest {
         assertThat(tokenEndpoint, endsWith("/realms/master/protocol/openid-connect/logout"));
     }
 
+    @Test
+    void shouldReturnTypedOpenIdConfiguration() {
+        OpenIdConfiguration config = KEYCLOAK.getOpenIdConfiguration("master");
+        assertThat(config.getIssuer(), equalTo(KEYCLOAK.getIssuerUrl("master")));
+        assertThat(config.getIntrospectionEndpoint(), endsWith("/realms/master/protocol/openid-connect/token/introspect"));
+        assertThat(config.getValue("revocation_endpoint"), endsWith("/realms/master/protocol/openid-connect/revoke"));
+    }
+
     @Test
     void shouldReturnConsistentValuesOnRepeatedCalls() {
         assertThat(KEYCLOAK.getIssuerUrl("master"), equalTo(KEYCLOAK.getIssuerUrl("master")));
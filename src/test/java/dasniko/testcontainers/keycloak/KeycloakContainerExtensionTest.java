@@ -102,6 +102,18 @@ public class KeycloakContainerExtensionTest {
         }
     }
 
+    @Test
+    public void shouldDeployProviderCreatedBeforeStartWithSingleArchiveCopy() throws Exception {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).withSingleArchiveCopy()) {
+            keycloak.createKeycloakExtensionProvider("target/test-classes");
+            keycloak.start();
+
+            String uri = keycloak.getAuthServerUrl() + "/realms/master/test-resource/hello";
+            Map<String, String> result = new ObjectMapper().readValue(new URL(uri), new TypeReference<>() {});
+            assertThat(result.get("hello"), is("master"));
+        }
+    }
+
     @Test
     public void shouldDeployProviderWithDependencyAndCallCustomEndpoint() throws Exception {
         List<File> dependencies = Maven.resolver()
@@ -7,12 +7,17 @@ import org.junit.jupiter.api.Test;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.ServerInfoResource;
 
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLHandshakeException;
+import java.net.http.HttpClient;
 import java.util.List;
 
 import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,6 +47,37 @@ public class KeycloakContainerHttpsTest {
         }
     }
 
+    @Test
+    public void shouldReuseHttpClientAndSslContextUntilRestart() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).useTls()) {
+            keycloak.start();
+
+            String token = getAdminToken(keycloak);
+            HttpClient httpClient = keycloak.getHttpClient();
+            SSLContext sslContext = keycloak.getSslContext();
+            assertThat(getAdminToken(keycloak), not(equalTo(token)));
+            try (Keycloak admin = keycloak.getKeycloakAdminClient()) {
+                assertNotNull(admin.serverInfo().getInfo());
+            }
+            assertThat(keycloak.getHttpClient(), sameInstance(httpClient));
+            assertThat(keycloak.getSslContext(), sameInstance(sslContext));
+            assertThat(keycloak.getHttpClient().version(), equalTo(HttpClient.Version.HTTP_2));
+
+            // the mapped ports and the TLS configuration may change with a restart
+            keycloak.stop();
+            keycloak.start();
+
+            assertNotNull(getAdminToken(keycloak));
+            assertThat(keycloak.getHttpClient(), not(sameInstance(httpClient)));
+            assertThat(keycloak.getSslContext(), not(sameInstance(sslContext)));
+        }
+    }
+
+    private static String getAdminToken(KeycloakContainer keycloak) {
+        return keycloak.getAccessToken(KeycloakContainer.MASTER_REALM, KeycloakContainer.ADMIN_CLI_CLIENT,
+            keycloak.getAdminUsername(), keycloak.getAdminPassword());
+    }
+
     @Test
     public void shouldStartKeycloakWithProvidedTlsKeystore() {
         try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).useTls()) {
@@ -12,6 +12,7 @@ import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 
@@ -59,6 +60,69 @@ public class KeycloakContainerOptimizedTest {
             not(containsString(UPDATING_THE_CONFIGURATION)));
     }
 
+    @Test
+    public void shouldBuildAndReuseOptimizedImageFromCache() {
+        String firstImage;
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withEnv("KC_HOSTNAME_STRICT", "false")
+            .withEnv("KC_HTTP_ENABLED", "true")
+            .withFeaturesEnabled("token-exchange")
+            .withOptimizedImageCache()) {
+            keycloak.start();
+            firstImage = keycloak.getDockerImageName();
+            assertThat(firstImage, startsWith(OptimizedImageCache.IMAGE_REPOSITORY));
+            assertThat(keycloak.getLogs(), not(containsString(UPDATING_THE_CONFIGURATION)));
+        }
+
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withEnv("KC_HOSTNAME_STRICT", "false")
+            .withEnv("KC_HTTP_ENABLED", "true")
+            .withFeaturesEnabled("token-exchange")
+            .withOptimizedImageCache()) {
+            keycloak.start();
+            assertThat(keycloak.getDockerImageName(), equalTo(firstImage));
+        }
+    }
+
+    @Test
+    public void shouldBakeProviderCreatedBeforeStartIntoOptimizedImage() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withEnv("KC_HOSTNAME_STRICT", "false")
+            .withEnv("KC_HTTP_ENABLED", "true")
+            .withOptimizedImageCache()) {
+            keycloak.createKeycloakExtensionProvider("target/test-classes");
+            keycloak.start();
+
+            assertThat(keycloak.getDockerImageName(), startsWith(OptimizedImageCache.IMAGE_REPOSITORY));
+            given().when().get(keycloak.getAuthServerUrl() + "/realms/master/test-resource/hello")
+                .then().statusCode(200).body("hello", equalTo("master"));
+        }
+    }
+
+    @Test
+    public void shouldCreateAndReuseClassDataSharingImage() {
+        String firstImage;
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withEnv("KC_HOSTNAME_STRICT", "false")
+            .withEnv("KC_HTTP_ENABLED", "true")
+            .withOptimizedImageCache()
+            .withClassDataSharing()) {
+            keycloak.start();
+            firstImage = keycloak.getDockerImageName();
+            assertThat(firstImage, startsWith(ClassDataSharingImageCache.IMAGE_REPOSITORY));
+            assertThat(keycloak.getEnvMap().get("JAVA_OPTS_APPEND"), containsString("-XX:SharedArchiveFile="));
+        }
+
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withEnv("KC_HOSTNAME_STRICT", "false")
+            .withEnv("KC_HTTP_ENABLED", "true")
+            .withOptimizedImageCache()
+            .withClassDataSharing()) {
+            keycloak.start();
+            assertThat(keycloak.getDockerImageName(), equalTo(firstImage));
+        }
+    }
+
     @Test
     public void shouldStartWithProviderInstallationLogMessageWhenOptimizedIsNotSet() {
         try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)) {
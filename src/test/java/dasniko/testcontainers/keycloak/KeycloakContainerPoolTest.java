@@ -0,0 +1,88 @@
+package dasniko.testcontainers.keycloak;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.TEST_REALM_JSON;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Niko Köbler, https://www.n-k.de, @dasniko
+ */
+public class KeycloakContainerPoolTest {
+
+    @Test
+    public void shouldLeaseStartedContainersAndRecycleThem() {
+        try (KeycloakContainerPool<KeycloakContainer> pool = new KeycloakContainerPool<>(2,
+            () -> new KeycloakContainer(KC_IMAGE).withRealmImportFile(TEST_REALM_JSON))) {
+
+            KeycloakContainer first = pool.lease();
+            KeycloakContainer second = pool.lease();
+            assertThat(first, not(sameInstance(second)));
+            assertThat(first.isRunning(), is(true));
+            assertThat(second.isRunning(), is(true));
+
+            given().when().get(first.getAuthServerUrl() + "/realms/test")
+                .then().statusCode(200).body("realm", equalTo("test"));
+
+            pool.release(first);
+            KeycloakContainer third = pool.lease();
+            assertThat(third, not(sameInstance(first)));
+            assertThat(third.isRunning(), is(true));
+
+            pool.release(second);
+            pool.release(third);
+        }
+    }
+
+    @Test
+    public void shouldStopContainersStillStartingOnClose() {
+        List<KeycloakContainer> created = new CopyOnWriteArrayList<>();
+        KeycloakContainerPool<KeycloakContainer> pool = new KeycloakContainerPool<>(2, () -> {
+            KeycloakContainer container = new KeycloakContainer(KC_IMAGE);
+            created.add(container);
+            return container;
+        });
+        // closing right away, the startups are still in progress
+        pool.close();
+
+        for (KeycloakContainer container : created) {
+            assertThat(container.isRunning(), is(false));
+        }
+        assertThrows(IllegalStateException.class, pool::lease);
+    }
+
+    @Test
+    public void shouldFailWaitingLeaseOnClose() {
+        KeycloakContainerPool<KeycloakContainer> pool = new KeycloakContainerPool<>(1, () -> new KeycloakContainer(KC_IMAGE));
+        CompletableFuture<KeycloakContainer> lease = CompletableFuture.supplyAsync(pool::lease);
+        // the lease waits for the startup in progress
+        Awaitility.await().pollDelay(Duration.ofMillis(500)).until(() -> !lease.isDone());
+        pool.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> lease.get(30, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(RuntimeException.class));
+    }
+
+    @Test
+    public void shouldNotReleaseForeignContainer() {
+        try (KeycloakContainerPool<KeycloakContainer> pool = new KeycloakContainerPool<>(1, () -> new KeycloakContainer(KC_IMAGE))) {
+            assertThrows(IllegalArgumentException.class, () -> pool.release(new KeycloakContainer(KC_IMAGE)));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package dasniko.testcontainers.keycloak;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.TEST_REALM_JSON;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Niko Köbler, https://www.n-k.de, @dasniko
+ */
+public class KeycloakContainerRealmLeaseTest {
+
+    static final KeycloakContainer KEYCLOAK = new KeycloakContainer(KC_IMAGE)
+        .withRealmImportFiles(TEST_REALM_JSON, "/another-realm.json");
+
+    @BeforeAll
+    static void startKeycloak() {
+        KEYCLOAK.start();
+    }
+
+    @AfterAll
+    static void stopKeycloak() {
+        KEYCLOAK.stop();
+    }
+
+    @Test
+    void shouldCloneAndDeleteRealm() {
+        String realmName;
+        try (RealmLease realm = KEYCLOAK.leaseRealm("another")) {
+            realmName = realm.getRealmName();
+            assertThat(realmName, startsWith("another-"));
+            given().when().get(KEYCLOAK.getAuthServerUrl() + "/realms/" + realmName)
+                .then().statusCode(200).body("realm", equalTo(realmName));
+        }
+        given().when().get(KEYCLOAK.getAuthServerUrl() + "/realms/" + realmName)
+            .then().statusCode(404);
+    }
+
+    @Test
+    void shouldLeaseUniqueRealms() {
+        try (RealmLease first = KEYCLOAK.leaseRealm("test"); RealmLease second = KEYCLOAK.leaseRealm("test")) {
+            assertThat(first.getRealmName(), not(equalTo(second.getRealmName())));
+        }
+    }
+
+    @Test
+    void shouldFailForUnknownTemplateRealm() {
+        assertThrows(IllegalArgumentException.class, () -> KEYCLOAK.leaseRealm("unknown"));
+    }
+}
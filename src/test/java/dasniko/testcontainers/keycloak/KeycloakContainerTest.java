@@ -5,10 +5,12 @@ import jakarta.ws.rs.BadRequestException;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.representations.info.ServerInfoRepresentation;
 import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.postgresql.PostgreSQLContainer;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -19,13 +21,17 @@ import java.net.Socket;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -66,6 +72,82 @@ public class KeycloakContainerTest {
         }
     }
 
+    @Test
+    public void shouldFailFastOnFatalBootError() {
+        Instant start = Instant.now();
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withRealmImportFile("/broken-realm.json")
+            .withStartupTimeout(Duration.ofMinutes(2))) {
+            assertThrows(ContainerLaunchException.class, keycloak::start);
+        }
+        Duration observedDuration = Duration.between(start, Instant.now());
+        assertTrue(observedDuration.toSeconds() < 60,
+            String.format("Startup should fail fast, but took %d seconds", observedDuration.toSeconds()));
+    }
+
+    @Test
+    public void shouldNotAbortHealthyBootOnNonFatalLogLine() {
+        // the line is logged at INFO level, when the server has started
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withFatalLogPatterns("Keycloak .* started in")) {
+            keycloak.start();
+            assertThat(keycloak.isRunning(), is(true));
+        }
+    }
+
+    @Test
+    public void shouldProvideStartupReport() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).withRealmImportFile(TEST_REALM_JSON)) {
+            keycloak.start();
+
+            StartupReport report = keycloak.getStartupReport();
+            assertThat(report.getImagePull().isPresent(), is(true));
+            assertThat(report.getContainerCreate().isPresent(), is(true));
+            assertThat(report.getListenerReadiness().isPresent(), is(true));
+            assertThat(report.getRealmImports().containsKey("test"), is(true));
+            assertTrue(report.getTotal().compareTo(report.getListenerReadiness().get()) > 0);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(JvmProfile.class)
+    public void shouldStartWithJvmProfile(JvmProfile jvmProfile) {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).withJvmProfile(jvmProfile)) {
+            keycloak.start();
+
+            assertThat(keycloak.getEnvMap().get("JAVA_OPTS_APPEND"), containsString(String.join(" ", jvmProfile.getJavaOptions())));
+            assertThat(keycloak.getEnvMap().get("JAVA_OPTS_KC_HEAP"),
+                containsString("-XX:MaxRAMPercentage=" + jvmProfile.getMaxRamPercentage()));
+        }
+    }
+
+    @Test
+    public void shouldApplyResourceLimits() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).withResourceLimits(2, 1024)) {
+            keycloak.start();
+
+            assertThat(keycloak.getContainerInfo().getHostConfig().getMemory(), is(1024L * 1024 * 1024));
+            assertThat(keycloak.getContainerInfo().getHostConfig().getNanoCPUs(), is(2_000_000_000L));
+            assertThat(keycloak.getEnvMap().get("JAVA_OPTS_KC_HEAP"), equalTo("-Xms512m -Xmx716m"));
+        }
+    }
+
+    @Test
+    public void shouldStartKeycloakAsync() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)) {
+            KeycloakContainer started = keycloak.startAsync().join();
+            assertThat(started.isRunning(), is(true));
+        }
+    }
+
+    @Test
+    public void shouldFailAsyncStartWithStartupError() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE).withStartupTimeout(Duration.ofSeconds(1))) {
+            CompletionException e = assertThrows(CompletionException.class, () -> keycloak.startAsync().join());
+            assertThat(e.getCause() instanceof ContainerLaunchException, is(true));
+        }
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {TEST_REALM_JSON, "/single-test-folder" + TEST_REALM_JSON, "/second-test-folder/first-test-folder" + TEST_REALM_JSON})
     public void shouldImportRealm(final String realmLocation) {
@@ -100,6 +182,92 @@ public class KeycloakContainerTest {
         }
     }
 
+    @Test
+    public void shouldImportMultipleRealmsWithSingleArchiveCopy() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withRealmImportFiles(TEST_REALM_JSON, "/another-realm.json")
+            .withSingleArchiveCopy()) {
+            keycloak.start();
+
+            given().when().get(keycloak.getAuthServerUrl() + "/realms/test")
+                .then().statusCode(200).body("realm", equalTo("test"));
+            given().when().get(keycloak.getAuthServerUrl() + "/realms/another")
+                .then().statusCode(200).body("realm", equalTo("another"));
+        }
+    }
+
+    @Test
+    public void shouldImportRealmIntoInMemoryDataDirectory() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withRealmImportFile(TEST_REALM_JSON)
+            .withInMemoryDataDirectory()) {
+            keycloak.start();
+
+            given().when().get(keycloak.getAuthServerUrl() + "/realms/test")
+                .then().statusCode(200).body("realm", equalTo("test"));
+            assertThat(keycloak.getContainerInfo().getHostConfig().getTmpFs().containsKey("/opt/keycloak/data/h2"), is(true));
+        }
+    }
+
+    @Test
+    public void shouldRunOnExternalDatabase() {
+        try (PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+             KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+                 .withRealmImportFile(TEST_REALM_JSON)
+                 .withDatabase(postgres)) {
+            keycloak.start();
+
+            given().when().get(keycloak.getAuthServerUrl() + "/realms/test")
+                .then().statusCode(200).body("realm", equalTo("test"));
+            assertThat(keycloak.getEnvMap().get("KC_DB_URL"), startsWith("jdbc:postgresql://keycloak-db:5432/"));
+        }
+    }
+
+    @Test
+    public void shouldRejectClassDataSharingWithExternalDatabase() {
+        try (PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+             KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+                 .withDatabase(postgres)
+                 .withClassDataSharing()) {
+            assertThrows(IllegalStateException.class, keycloak::configure);
+        }
+    }
+
+    @Test
+    public void shouldRestoreRealmImportSnapshot() {
+        for (int i = 0; i < 2; i++) {
+            try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+                .withRealmImportFile(TEST_REALM_JSON)
+                .withRealmImportSnapshot()) {
+                keycloak.start();
+
+                // the realms are imported by a separate container, when the snapshot is created
+                assertThat(Arrays.asList(keycloak.getCommandParts()), not(hasItem("--import-realm")));
+                assertThat(keycloak.getLogs(), not(containsString("Realm 'test' imported")));
+
+                given().when().get(keycloak.getAuthServerUrl() + "/realms/test")
+                    .then().statusCode(200).body("realm", equalTo("test"));
+                try (Keycloak admin = keycloak.getKeycloakAdminClient()) {
+                    assertThat(admin.realm("test").toRepresentation().getRealm(), equalTo("test"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldRefreshOpenIdConfigurationAfterRestart() {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withRealmImportFile(TEST_REALM_JSON)
+            .withOpenIdConfigurationPreload()) {
+            keycloak.start();
+            assertThat(keycloak.getIssuerUrl("test"), equalTo(keycloak.getAuthServerUrl() + "/realms/test"));
+
+            keycloak.stop();
+            keycloak.start();
+            assertThat(keycloak.getIssuerUrl("test"), equalTo(keycloak.getAuthServerUrl() + "/realms/test"));
+        }
+    }
+
     @Test
     public void shouldImportMasterRealmAdmin() {
         try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
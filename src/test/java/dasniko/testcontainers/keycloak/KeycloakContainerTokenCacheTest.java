@@ -0,0 +1,52 @@
+package dasniko.testcontainers.keycloak;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.CLIENT_ID;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.CLIENT_SECRET;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.PASSWORD;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.TEST_REALM;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.USERNAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * @author Niko Köbler, https://www.n-k.de, @dasniko
+ */
+public class KeycloakContainerTokenCacheTest {
+
+    static final KeycloakContainer KEYCLOAK = new KeycloakContainer(KC_IMAGE)
+        .withRealmImportFile("/test-realm.json")
+        .withTokenCache();
+
+    @BeforeAll
+    static void setup() {
+        KEYCLOAK.start();
+        KeycloakContainerTokenHelpersTest.createClientAndUser(KEYCLOAK);
+    }
+
+    @AfterAll
+    static void stopKeycloak() {
+        KEYCLOAK.stop();
+    }
+
+    @Test
+    void shouldReuseCachedTokens() {
+        String token = KEYCLOAK.getAccessToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD);
+        assertThat(KEYCLOAK.getAccessToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD), equalTo(token));
+
+        String clientToken = KEYCLOAK.getClientCredentialsToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET);
+        assertThat(KEYCLOAK.getClientCredentialsToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET), equalTo(clientToken));
+    }
+
+    @Test
+    void shouldAlwaysRequestNewTokenResponses() {
+        TokenResponse response = KEYCLOAK.getTokenResponse(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD);
+        assertThat(KEYCLOAK.getTokenResponse(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD).getAccessToken(),
+            not(equalTo(response.getAccessToken())));
+    }
+}
@@ -0,0 +1,68 @@
+package dasniko.testcontainers.keycloak;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.CLIENT_ID;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.CLIENT_SECRET;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.PASSWORD;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.TEST_REALM;
+import static dasniko.testcontainers.keycloak.KeycloakContainerTokenHelpersTest.USERNAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * @author Niko Köbler, https://www.n-k.de, @dasniko
+ */
+public class KeycloakContainerTokenForgingTest {
+
+    static final KeycloakContainer KEYCLOAK = new KeycloakContainer(KC_IMAGE)
+        .withRealmImportFile("/test-realm.json")
+        .withTokenForging();
+
+    @BeforeAll
+    static void setup() {
+        KEYCLOAK.start();
+        KeycloakContainerTokenHelpersTest.createClientAndUser(KEYCLOAK);
+    }
+
+    @AfterAll
+    static void stopKeycloak() {
+        KEYCLOAK.stop();
+    }
+
+    @Test
+    void shouldForgeTokenWithRealmKey() {
+        String token = KEYCLOAK.forgeToken(TEST_REALM, Map.of("sub", "forged-user", "azp", CLIENT_ID));
+        Map<String, Object> claims = KEYCLOAK.verifyToken(TEST_REALM, token);
+        assertThat(claims.get("sub"), equalTo("forged-user"));
+        assertThat(claims.get("iss"), equalTo(KEYCLOAK.getIssuerUrl(TEST_REALM)));
+    }
+
+    @Test
+    void shouldKeepSigningIssuedTokensWithRealmKeys() {
+        // the test realm has no keys of its own, so the default keys are injected together with the forging key
+        String forged = KEYCLOAK.forgeToken(TEST_REALM, Map.of("sub", "forged-user"));
+        String issued = KEYCLOAK.getAccessToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD);
+        assertThat(decodeHeader(issued).get("alg"), equalTo("RS256"));
+        assertThat(decodeHeader(issued).get("kid"), not(equalTo(decodeHeader(forged).get("kid"))));
+        assertThat(KEYCLOAK.verifyToken(TEST_REALM, issued).get("preferred_username"), equalTo(USERNAME));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> decodeHeader(String token) {
+        try {
+            byte[] header = Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.')));
+            return new ObjectMapper().readValue(header, Map.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Failed to decode token header", e);
+        }
+    }
+}
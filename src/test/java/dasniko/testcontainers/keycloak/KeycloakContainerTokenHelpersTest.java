@@ -1,6 +1,7 @@
 package dasniko.testcontainers.keycloak;
 
 import jakarta.ws.rs.core.Response;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -14,8 +15,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static dasniko.testcontainers.keycloak.ExtendableKeycloakContainer.MASTER_REALM;
 import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyOrNullString;
@@ -24,6 +30,7 @@ import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author Niko Köbler, https://www.n-k.de, @dasniko
@@ -42,8 +49,11 @@ public class KeycloakContainerTokenHelpersTest {
     @BeforeAll
     static void setup() {
         KEYCLOAK.start();
+        createClientAndUser(KEYCLOAK);
+    }
 
-        RealmResource realm = KEYCLOAK.getKeycloakAdminClient().realm(TEST_REALM);
+    static void createClientAndUser(KeycloakContainer keycloak) {
+        RealmResource realm = keycloak.getKeycloakAdminClient().realm(TEST_REALM);
 
         ClientRepresentation client = new ClientRepresentation();
         client.setClientId(CLIENT_ID);
@@ -106,6 +116,72 @@ public class KeycloakContainerTokenHelpersTest {
         assertThat(response.getTokenType(), equalToIgnoringCase("bearer"));
     }
 
+    @Test
+    void shouldGetTokenResponsesAsync() {
+        CompletableFuture<TokenResponse> passwordResponse = KEYCLOAK.getTokenResponseAsync(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD);
+        CompletableFuture<TokenResponse> clientResponse = KEYCLOAK.getClientCredentialsTokenResponseAsync(TEST_REALM, CLIENT_ID, CLIENT_SECRET);
+        assertThat(passwordResponse.join().getRefreshToken(), not(emptyOrNullString()));
+        assertThat(clientResponse.join().getAccessToken(), not(emptyOrNullString()));
+    }
+
+    @Test
+    void shouldMintTokensForManyUsers() {
+        List<Credentials> credentials = List.of(new Credentials(USERNAME, PASSWORD), new Credentials("unknown", "unknown"));
+        MintedTokens minted = KEYCLOAK.mintTokens(TEST_REALM, CLIENT_ID, CLIENT_SECRET, credentials, 2);
+        assertThat(minted.getTokens().get(USERNAME).getAccessToken(), not(emptyOrNullString()));
+        assertThat(minted.getErrorCount(), equalTo(1));
+        assertThat(minted.getLatencies().size(), equalTo(2));
+    }
+
+    @Test
+    void shouldRejectDuplicateUsernamesWhenMinting() {
+        List<Credentials> credentials = List.of(new Credentials(USERNAME, PASSWORD), new Credentials(USERNAME, "other"));
+        assertThrows(IllegalArgumentException.class, () -> KEYCLOAK.mintTokens(TEST_REALM, CLIENT_ID, credentials));
+    }
+
+    @Test
+    void shouldVerifyTokenLocally() {
+        String token = KEYCLOAK.getTokenResponse(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD).getAccessToken();
+        Map<String, Object> claims = KEYCLOAK.verifyToken(TEST_REALM, token);
+        assertThat(claims.get("iss"), equalTo(KEYCLOAK.getIssuerUrl(TEST_REALM)));
+        assertThat(claims.get("preferred_username"), equalTo(USERNAME));
+
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+        assertThrows(IllegalArgumentException.class, () -> KEYCLOAK.verifyToken(TEST_REALM, tampered));
+        assertThrows(IllegalArgumentException.class, () -> KEYCLOAK.verifyToken(MASTER_REALM, token));
+    }
+
+    @Test
+    void shouldRenewManagedTokenAheadOfExpiry() {
+        ClientRepresentation client = new ClientRepresentation();
+        client.setClientId("short-lived-client");
+        client.setSecret(CLIENT_SECRET);
+        client.setPublicClient(false);
+        client.setServiceAccountsEnabled(true);
+        client.setEnabled(true);
+        // tokens are renewed 30 seconds before they expire, so this one after 2 seconds
+        client.setAttributes(Map.of("access.token.lifespan", "32"));
+        KEYCLOAK.getKeycloakAdminClient().realm(TEST_REALM).clients().create(client).close();
+
+        try (ManagedToken token = KEYCLOAK.manageClientCredentialsToken(TEST_REALM, "short-lived-client", CLIENT_SECRET)) {
+            String initial = token.getAccessToken();
+            assertThat(initial, not(emptyOrNullString()));
+            Awaitility.await()
+                .atMost(Duration.ofSeconds(30))
+                .pollInterval(Duration.ofMillis(500))
+                .until(() -> !token.getAccessToken().equals(initial));
+            assertThat(KEYCLOAK.verifyToken(TEST_REALM, token.getAccessToken()).get("azp"), equalTo("short-lived-client"));
+        }
+    }
+
+    @Test
+    void shouldRefreshToken() {
+        TokenResponse response = KEYCLOAK.getTokenResponse(TEST_REALM, CLIENT_ID, CLIENT_SECRET, USERNAME, PASSWORD);
+        TokenResponse refreshed = KEYCLOAK.refreshToken(TEST_REALM, CLIENT_ID, CLIENT_SECRET, response.getRefreshToken());
+        assertThat(refreshed.getAccessToken(), not(emptyOrNullString()));
+        assertThat(refreshed.getAccessToken(), not(equalTo(response.getAccessToken())));
+    }
+
     private static String extractIssuerFromToken(String token) {
         try {
             String[] parts = token.split("\\.");
@@ -0,0 +1,85 @@
+package dasniko.testcontainers.keycloak;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipFile;
+
+import static dasniko.testcontainers.keycloak.KeycloakContainerTest.KC_IMAGE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class ProviderJarCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldPackageEveryClassesLocationIntoItsOwnJar() throws IOException {
+        Map<String, Path> classesLocations = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            classesLocations.put("location-" + i, createClassesLocation("location-" + i));
+        }
+
+        Map<String, Path> jars = ProviderJarCache.getOrCreateAll(classesLocations, LoggerFactory.getLogger(getClass()));
+        assertThat(new ArrayList<>(jars.keySet()), contains("location-0", "location-1", "location-2"));
+        assertThat(new HashSet<>(jars.values()).size(), equalTo(3));
+        for (Map.Entry<String, Path> jar : jars.entrySet()) {
+            try (ZipFile zip = new ZipFile(jar.getValue().toFile())) {
+                assertThat(zip.getEntry("org/example/" + jar.getKey() + ".class"), notNullValue());
+            }
+        }
+
+        // unchanged classes folders are taken from the cache, without packaging them again
+        List<FileTime> lastModified = new ArrayList<>();
+        for (Path jar : jars.values()) {
+            lastModified.add(Files.getLastModifiedTime(jar));
+        }
+        Map<String, Path> cachedJars = ProviderJarCache.getOrCreateAll(classesLocations, LoggerFactory.getLogger(getClass()));
+        assertThat(cachedJars, equalTo(jars));
+        List<FileTime> cachedLastModified = new ArrayList<>();
+        for (Path jar : cachedJars.values()) {
+            cachedLastModified.add(Files.getLastModifiedTime(jar));
+        }
+        assertThat(cachedLastModified, equalTo(lastModified));
+    }
+
+    @Test
+    public void shouldDeployEveryProviderClassesLocationOnConfigure() throws IOException {
+        try (KeycloakContainer keycloak = new KeycloakContainer(KC_IMAGE)
+            .withProviderClassesFrom(
+                createClassesLocation("first").toString(),
+                createClassesLocation("second").toString(),
+                createClassesLocation("third").toString())) {
+            keycloak.configure();
+
+            assertThat(keycloak.getCopyToFileContainerPathMap().values(), hasItems(
+                "/opt/keycloak/providers/0_providers.jar",
+                "/opt/keycloak/providers/1_providers.jar",
+                "/opt/keycloak/providers/2_providers.jar"));
+        }
+    }
+
+    private Path createClassesLocation(String name) throws IOException {
+        Path classesLocation = tempDir.resolve(name);
+        Path classFile = classesLocation.resolve("org/example/" + name + ".class");
+        Files.createDirectories(classFile.getParent());
+        // unique content per test run, so the first packaging isn't a cache hit of a previous run
+        Files.writeString(classFile, UUID.randomUUID().toString());
+        return classesLocation;
+    }
+}